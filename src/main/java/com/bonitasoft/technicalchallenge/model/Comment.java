@@ -3,29 +3,41 @@ package com.bonitasoft.technicalchallenge.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = @Index(name = "idx_comment_recipe_timestamp", columnList = "recipe_id, timestamp, id"))
 public class Comment implements Serializable {
+    public static final String ID_SEQUENCE = "comment_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private String text;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonManagedReference
     private User author;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonIgnore
     private Recipe recipe;
 
     private LocalDateTime timestamp;
 
+    @UpdateTimestamp
+    @ColumnDefault("current_timestamp")
+    @Column(nullable = false)
+    @JsonIgnore
+    private LocalDateTime updatedAt;
+
     public Comment() {}
 
     public Comment(Long id, String text, User author, Recipe recipe, LocalDateTime timestamp) {
@@ -76,6 +88,14 @@ public class Comment implements Serializable {
         this.timestamp = timestamp;
     }
 
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
     @Override
     public String toString() {
         return "Comment{" +
@@ -84,6 +104,7 @@ public class Comment implements Serializable {
                 ", author=" + author +
                 ", recipe=" + recipe +
                 ", timestamp=" + timestamp +
+                ", updatedAt=" + updatedAt +
                 '}';
     }
 }
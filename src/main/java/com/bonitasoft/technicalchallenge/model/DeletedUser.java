@@ -0,0 +1,49 @@
+package com.bonitasoft.technicalchallenge.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+// Left behind by a deleted user so TokenRevocations keeps rejecting their JWTs after a restart, until they expire.
+@Entity
+@Table(name = "deleted_user")
+public class DeletedUser implements Serializable {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    public DeletedUser() {}
+
+    public DeletedUser(Long userId, LocalDateTime deletedAt) {
+        this.userId = userId;
+        this.deletedAt = deletedAt;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "DeletedUser{" +
+                "userId=" + userId +
+                ", deletedAt=" + deletedAt +
+                '}';
+    }
+}
@@ -0,0 +1,89 @@
+package com.bonitasoft.technicalchallenge.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+// One score per user and recipe; the recipe keeps the running sum and count, see RatingService.
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_rating_recipe_user", columnNames = {"recipe_id", "user_id"}))
+public class Rating implements Serializable {
+    public static final String ID_SEQUENCE = "rating_seq";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Recipe recipe;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private User user;
+
+    private int score;
+
+    private LocalDateTime timestamp;
+
+    public Rating() {}
+
+    public Rating(Recipe recipe, User user, int score, LocalDateTime timestamp) {
+        this.recipe = recipe;
+        this.user = user;
+        this.score = score;
+        this.timestamp = timestamp;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Recipe getRecipe() {
+        return recipe;
+    }
+
+    public void setRecipe(Recipe recipe) {
+        this.recipe = recipe;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "Rating{" +
+                "id=" + id +
+                ", score=" + score +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
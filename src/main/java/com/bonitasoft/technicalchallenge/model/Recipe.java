@@ -1,34 +1,95 @@
 package com.bonitasoft.technicalchallenge.model;
 
+import com.bonitasoft.technicalchallenge.repository.projection.CommentSummary;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Formula;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.io.Serializable;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_recipe_rating", columnList = "rating_average, id"),
+        @Index(name = "idx_recipe_updated_at", columnList = "updated_at, id"),
+        @Index(name = "idx_recipe_author", columnList = "author_id, id")
+})
+@BatchSize(size = 50)
+@NamedEntityGraph(name = Recipe.DETAIL_GRAPH, attributeNodes = @NamedAttributeNode("author"))
 public class Recipe implements Serializable {
+    public static final String DETAIL_GRAPH = "Recipe.detail";
+    public static final String ID_SEQUENCE = "recipe_seq";
 
+    // Pooled sequence rather than IDENTITY so Hibernate can batch inserts, see IdSequenceInitializer.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = 50)
     private Long id;
 
     private String title;
     private String ingredients;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonManagedReference
     @OnDelete(action = OnDeleteAction.CASCADE)
     private User author;
 
     private String keywords;
 
+    // Served page by page from GET /api/recipe/{recipeId}/comments, the payload only carries latestComments.
     @OneToMany(mappedBy = "recipe", cascade = CascadeType.ALL)
-    @JsonManagedReference
+    @BatchSize(size = 50)
+    @JsonIgnore
     private List<Comment> comments;
 
+    @Formula("(select count(*) from comment c where c.recipe_id = id)")
+    private int commentCount;
+
+    @Transient
+    private List<CommentSummary> latestComments;
+
+    // Bumped by every update of the recipe or of its comments, see RecipeRepository.bumpVersion.
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
+    // Moves with version, including the bulk updates of RecipeRepository and CommentWriteBuffer; feeds GET /api/recipe/changes.
+    @UpdateTimestamp
+    @ColumnDefault("current_timestamp")
+    @Column(name = "updated_at", nullable = false)
+    @JsonIgnore
+    private LocalDateTime updatedAt;
+
+    // Only ever incremented in SQL by RecipeViewCounter: never written back from the entity, and not part of the
+    // versioned JSON representation.
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    @JsonIgnore
+    private long views;
+
+    // Running aggregates of the recipe's ratings, only changed in SQL by RecipeRepository.addRating.
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    @JsonIgnore
+    private long ratingSum;
+
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private int ratingCount;
+
+    // 0 until rated, which keeps unrated recipes out of the top-rated range of idx_recipe_rating.
+    @ColumnDefault("0")
+    @Column(name = "rating_average", nullable = false, updatable = false)
+    private double ratingAverage;
+
     public Recipe() {
     }
 
@@ -96,6 +157,70 @@ public class Recipe implements Serializable {
         this.comments = comments;
     }
 
+    public int getCommentCount() {
+        return commentCount;
+    }
+
+    public void setCommentCount(int commentCount) {
+        this.commentCount = commentCount;
+    }
+
+    public List<CommentSummary> getLatestComments() {
+        return latestComments;
+    }
+
+    public void setLatestComments(List<CommentSummary> latestComments) {
+        this.latestComments = latestComments;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public long getViews() {
+        return views;
+    }
+
+    public void setViews(long views) {
+        this.views = views;
+    }
+
+    public long getRatingSum() {
+        return ratingSum;
+    }
+
+    public void setRatingSum(long ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+
+    public int getRatingCount() {
+        return ratingCount;
+    }
+
+    public void setRatingCount(int ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+
+    public double getRatingAverage() {
+        return ratingAverage;
+    }
+
+    public void setRatingAverage(double ratingAverage) {
+        this.ratingAverage = ratingAverage;
+    }
+
     @Override
     public String toString() {
         return "Recipe{" +
@@ -104,7 +229,12 @@ public class Recipe implements Serializable {
                 ", ingredients='" + ingredients + '\'' +
                 ", author=" + author +
                 ", keywords='" + keywords + '\'' +
-                ", comments=" + comments +
+                ", commentCount=" + commentCount +
+                ", version=" + version +
+                ", updatedAt=" + updatedAt +
+                ", views=" + views +
+                ", ratingCount=" + ratingCount +
+                ", ratingAverage=" + ratingAverage +
                 '}';
     }
 }
@@ -0,0 +1,49 @@
+package com.bonitasoft.technicalchallenge.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+// Left behind by a deleted recipe so GET /api/recipe/changes can report the deletion; recipe ids are never reused.
+@Entity
+@Table(indexes = @Index(name = "idx_tombstone_deleted_at", columnList = "deleted_at, recipe_id"))
+public class Tombstone implements Serializable {
+    @Id
+    @Column(name = "recipe_id")
+    private Long recipeId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    public Tombstone() {}
+
+    public Tombstone(Long recipeId, LocalDateTime deletedAt) {
+        this.recipeId = recipeId;
+        this.deletedAt = deletedAt;
+    }
+
+    public Long getRecipeId() {
+        return recipeId;
+    }
+
+    public void setRecipeId(Long recipeId) {
+        this.recipeId = recipeId;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "Tombstone{" +
+                "recipeId=" + recipeId +
+                ", deletedAt=" + deletedAt +
+                '}';
+    }
+}
@@ -1,16 +1,21 @@
 package com.bonitasoft.technicalchallenge.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@BatchSize(size = 50)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Table(name = "users",
        uniqueConstraints = {
            @UniqueConstraint(columnNames = "username"),
@@ -36,11 +41,18 @@ public class User implements Serializable {
   private String password;
 
   @ManyToMany(fetch = FetchType.LAZY)
+  @BatchSize(size = 50)
   @JoinTable(name = "user_roles", 
              joinColumns = @JoinColumn(name = "user_id"),
              inverseJoinColumns = @JoinColumn(name = "role_id"))
   private Set<Role> roles = new HashSet<>();
 
+  // Carried by issued JWTs; incrementing it revokes them, see TokenRevocations.
+  @ColumnDefault("0")
+  @Column(nullable = false)
+  @JsonIgnore
+  private long tokenVersion;
+
   public User() {
   }
 
@@ -90,6 +102,14 @@ public class User implements Serializable {
     this.roles = roles;
   }
 
+  public long getTokenVersion() {
+    return tokenVersion;
+  }
+
+  public void setTokenVersion(long tokenVersion) {
+    this.tokenVersion = tokenVersion;
+  }
+
   @Override
   public String toString() {
     return "User{" +
@@ -98,6 +118,7 @@ public class User implements Serializable {
             ", email='" + email + '\'' +
             ", password='" + password + '\'' +
             ", roles=" + roles +
+            ", tokenVersion=" + tokenVersion +
             '}';
   }
 }
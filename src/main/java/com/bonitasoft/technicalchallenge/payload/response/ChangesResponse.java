@@ -0,0 +1,61 @@
+package com.bonitasoft.technicalchallenge.payload.response;
+
+import com.bonitasoft.technicalchallenge.repository.projection.RecipeSummary;
+
+import java.util.List;
+
+public class ChangesResponse {
+	private List<RecipeSummary> updated;
+	private List<Long> deleted;
+	private String next;
+	private boolean hasMore;
+
+	public ChangesResponse(List<RecipeSummary> updated, List<Long> deleted, String next, boolean hasMore) {
+		this.updated = updated;
+		this.deleted = deleted;
+		this.next = next;
+		this.hasMore = hasMore;
+	}
+
+	public List<RecipeSummary> getUpdated() {
+		return updated;
+	}
+
+	public void setUpdated(List<RecipeSummary> updated) {
+		this.updated = updated;
+	}
+
+	public List<Long> getDeleted() {
+		return deleted;
+	}
+
+	public void setDeleted(List<Long> deleted) {
+		this.deleted = deleted;
+	}
+
+	public String getNext() {
+		return next;
+	}
+
+	public void setNext(String next) {
+		this.next = next;
+	}
+
+	public boolean isHasMore() {
+		return hasMore;
+	}
+
+	public void setHasMore(boolean hasMore) {
+		this.hasMore = hasMore;
+	}
+
+	@Override
+	public String toString() {
+		return "ChangesResponse{" +
+				"updated=" + updated +
+				", deleted=" + deleted +
+				", next='" + next + '\'' +
+				", hasMore=" + hasMore +
+				'}';
+	}
+}
@@ -0,0 +1,104 @@
+package com.bonitasoft.technicalchallenge.payload.response;
+
+import com.bonitasoft.technicalchallenge.repository.projection.ChefRecipeStats;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ChefSummaryResponse {
+	private List<ChefRecipeStats> recipes;
+	private int recipeCount;
+	private long commentCount;
+	private LocalDateTime lastCommentAt;
+	private long ratingCount;
+	private double ratingAverage;
+
+	public ChefSummaryResponse(List<ChefRecipeStats> recipes, int recipeCount, long commentCount, LocalDateTime lastCommentAt,
+							   long ratingCount, double ratingAverage) {
+		this.recipes = recipes;
+		this.recipeCount = recipeCount;
+		this.commentCount = commentCount;
+		this.lastCommentAt = lastCommentAt;
+		this.ratingCount = ratingCount;
+		this.ratingAverage = ratingAverage;
+	}
+
+	/**
+	 * Adds the totals to per-recipe rows; the overall average weighs each recipe by its number of ratings.
+	 */
+	public static ChefSummaryResponse of(List<ChefRecipeStats> recipes) {
+		long commentCount = 0;
+		LocalDateTime lastCommentAt = null;
+		long ratingCount = 0;
+		double ratingSum = 0;
+		for (ChefRecipeStats recipe : recipes) {
+			commentCount += recipe.getCommentCount();
+			if (recipe.getLastCommentAt() != null && (lastCommentAt == null || recipe.getLastCommentAt().isAfter(lastCommentAt))) {
+				lastCommentAt = recipe.getLastCommentAt();
+			}
+			ratingCount += recipe.getRatingCount();
+			ratingSum += recipe.getRatingAverage() * recipe.getRatingCount();
+		}
+		return new ChefSummaryResponse(recipes, recipes.size(), commentCount, lastCommentAt, ratingCount,
+				ratingCount == 0 ? 0 : ratingSum / ratingCount);
+	}
+
+	public List<ChefRecipeStats> getRecipes() {
+		return recipes;
+	}
+
+	public void setRecipes(List<ChefRecipeStats> recipes) {
+		this.recipes = recipes;
+	}
+
+	public int getRecipeCount() {
+		return recipeCount;
+	}
+
+	public void setRecipeCount(int recipeCount) {
+		this.recipeCount = recipeCount;
+	}
+
+	public long getCommentCount() {
+		return commentCount;
+	}
+
+	public void setCommentCount(long commentCount) {
+		this.commentCount = commentCount;
+	}
+
+	public LocalDateTime getLastCommentAt() {
+		return lastCommentAt;
+	}
+
+	public void setLastCommentAt(LocalDateTime lastCommentAt) {
+		this.lastCommentAt = lastCommentAt;
+	}
+
+	public long getRatingCount() {
+		return ratingCount;
+	}
+
+	public void setRatingCount(long ratingCount) {
+		this.ratingCount = ratingCount;
+	}
+
+	public double getRatingAverage() {
+		return ratingAverage;
+	}
+
+	public void setRatingAverage(double ratingAverage) {
+		this.ratingAverage = ratingAverage;
+	}
+
+	@Override
+	public String toString() {
+		return "ChefSummaryResponse{" +
+				"recipeCount=" + recipeCount +
+				", commentCount=" + commentCount +
+				", lastCommentAt=" + lastCommentAt +
+				", ratingCount=" + ratingCount +
+				", ratingAverage=" + ratingAverage +
+				'}';
+	}
+}
@@ -0,0 +1,70 @@
+package com.bonitasoft.technicalchallenge.payload.response;
+
+import java.time.LocalDateTime;
+
+public class CommentResponse {
+	private Long id;
+	private Long recipeId;
+	private Long authorId;
+	private String text;
+	private LocalDateTime timestamp;
+
+	public CommentResponse(Long id, Long recipeId, Long authorId, String text, LocalDateTime timestamp) {
+		this.id = id;
+		this.recipeId = recipeId;
+		this.authorId = authorId;
+		this.text = text;
+		this.timestamp = timestamp;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Long getRecipeId() {
+		return recipeId;
+	}
+
+	public void setRecipeId(Long recipeId) {
+		this.recipeId = recipeId;
+	}
+
+	public Long getAuthorId() {
+		return authorId;
+	}
+
+	public void setAuthorId(Long authorId) {
+		this.authorId = authorId;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public void setText(String text) {
+		this.text = text;
+	}
+
+	public LocalDateTime getTimestamp() {
+		return timestamp;
+	}
+
+	public void setTimestamp(LocalDateTime timestamp) {
+		this.timestamp = timestamp;
+	}
+
+	@Override
+	public String toString() {
+		return "CommentResponse{" +
+				"id=" + id +
+				", recipeId=" + recipeId +
+				", authorId=" + authorId +
+				", text='" + text + '\'' +
+				", timestamp=" + timestamp +
+				'}';
+	}
+}
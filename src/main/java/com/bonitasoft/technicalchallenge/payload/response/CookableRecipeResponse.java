@@ -0,0 +1,39 @@
+package com.bonitasoft.technicalchallenge.payload.response;
+
+import com.bonitasoft.technicalchallenge.repository.projection.RecipeSummary;
+
+import java.util.Set;
+
+public class CookableRecipeResponse {
+	private RecipeSummary recipe;
+	private Set<String> missingIngredients;
+
+	public CookableRecipeResponse(RecipeSummary recipe, Set<String> missingIngredients) {
+		this.recipe = recipe;
+		this.missingIngredients = missingIngredients;
+	}
+
+	public RecipeSummary getRecipe() {
+		return recipe;
+	}
+
+	public void setRecipe(RecipeSummary recipe) {
+		this.recipe = recipe;
+	}
+
+	public Set<String> getMissingIngredients() {
+		return missingIngredients;
+	}
+
+	public void setMissingIngredients(Set<String> missingIngredients) {
+		this.missingIngredients = missingIngredients;
+	}
+
+	@Override
+	public String toString() {
+		return "CookableRecipeResponse{" +
+				"recipe=" + recipe +
+				", missingIngredients=" + missingIngredients +
+				'}';
+	}
+}
@@ -0,0 +1,43 @@
+package com.bonitasoft.technicalchallenge.payload.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportResponse {
+	private int imported;
+	private int failed;
+	private List<ImportRowError> errors = new ArrayList<>();
+
+	public int getImported() {
+		return imported;
+	}
+
+	public void setImported(int imported) {
+		this.imported = imported;
+	}
+
+	public int getFailed() {
+		return failed;
+	}
+
+	public void setFailed(int failed) {
+		this.failed = failed;
+	}
+
+	public List<ImportRowError> getErrors() {
+		return errors;
+	}
+
+	public void setErrors(List<ImportRowError> errors) {
+		this.errors = errors;
+	}
+
+	@Override
+	public String toString() {
+		return "ImportResponse{" +
+				"imported=" + imported +
+				", failed=" + failed +
+				", errors=" + errors +
+				'}';
+	}
+}
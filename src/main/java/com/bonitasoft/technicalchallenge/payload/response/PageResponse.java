@@ -0,0 +1,49 @@
+package com.bonitasoft.technicalchallenge.payload.response;
+
+import java.util.List;
+import java.util.function.Function;
+
+public class PageResponse<T> {
+	private List<T> items;
+	private String next;
+
+	public PageResponse(List<T> items, String next) {
+		this.items = items;
+		this.next = next;
+	}
+
+	/**
+	 * Builds a page from rows fetched with a limit of {@code pageSize + 1}: the extra row only signals that a next page exists.
+	 */
+	public static <T> PageResponse<T> of(List<T> rows, int pageSize, Function<T, String> cursorOf) {
+		if (rows.size() <= pageSize) {
+			return new PageResponse<>(rows, null);
+		}
+		List<T> items = rows.subList(0, pageSize);
+		return new PageResponse<>(items, cursorOf.apply(items.get(pageSize - 1)));
+	}
+
+	public List<T> getItems() {
+		return items;
+	}
+
+	public void setItems(List<T> items) {
+		this.items = items;
+	}
+
+	public String getNext() {
+		return next;
+	}
+
+	public void setNext(String next) {
+		this.next = next;
+	}
+
+	@Override
+	public String toString() {
+		return "PageResponse{" +
+				"items=" + items +
+				", next='" + next + '\'' +
+				'}';
+	}
+}
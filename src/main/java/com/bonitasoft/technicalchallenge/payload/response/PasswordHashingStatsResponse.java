@@ -0,0 +1,112 @@
+package com.bonitasoft.technicalchallenge.payload.response;
+
+public class PasswordHashingStatsResponse {
+	private int threads;
+	private int activeThreads;
+	private int queueDepth;
+	private int queueCapacity;
+	private long completed;
+	private long rejected;
+	private double meanHashMillis;
+	private double maxHashMillis;
+	private double meanWaitMillis;
+
+	public PasswordHashingStatsResponse(int threads, int activeThreads, int queueDepth, int queueCapacity, long completed, long rejected, double meanHashMillis, double maxHashMillis, double meanWaitMillis) {
+		this.threads = threads;
+		this.activeThreads = activeThreads;
+		this.queueDepth = queueDepth;
+		this.queueCapacity = queueCapacity;
+		this.completed = completed;
+		this.rejected = rejected;
+		this.meanHashMillis = meanHashMillis;
+		this.maxHashMillis = maxHashMillis;
+		this.meanWaitMillis = meanWaitMillis;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	public int getActiveThreads() {
+		return activeThreads;
+	}
+
+	public void setActiveThreads(int activeThreads) {
+		this.activeThreads = activeThreads;
+	}
+
+	public int getQueueDepth() {
+		return queueDepth;
+	}
+
+	public void setQueueDepth(int queueDepth) {
+		this.queueDepth = queueDepth;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	public long getCompleted() {
+		return completed;
+	}
+
+	public void setCompleted(long completed) {
+		this.completed = completed;
+	}
+
+	public long getRejected() {
+		return rejected;
+	}
+
+	public void setRejected(long rejected) {
+		this.rejected = rejected;
+	}
+
+	public double getMeanHashMillis() {
+		return meanHashMillis;
+	}
+
+	public void setMeanHashMillis(double meanHashMillis) {
+		this.meanHashMillis = meanHashMillis;
+	}
+
+	public double getMaxHashMillis() {
+		return maxHashMillis;
+	}
+
+	public void setMaxHashMillis(double maxHashMillis) {
+		this.maxHashMillis = maxHashMillis;
+	}
+
+	public double getMeanWaitMillis() {
+		return meanWaitMillis;
+	}
+
+	public void setMeanWaitMillis(double meanWaitMillis) {
+		this.meanWaitMillis = meanWaitMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "PasswordHashingStatsResponse{" +
+				"threads=" + threads +
+				", activeThreads=" + activeThreads +
+				", queueDepth=" + queueDepth +
+				", queueCapacity=" + queueCapacity +
+				", completed=" + completed +
+				", rejected=" + rejected +
+				", meanHashMillis=" + meanHashMillis +
+				", maxHashMillis=" + maxHashMillis +
+				", meanWaitMillis=" + meanWaitMillis +
+				'}';
+	}
+}
@@ -0,0 +1,59 @@
+package com.bonitasoft.technicalchallenge.payload.response;
+
+import java.time.LocalDateTime;
+
+public class RatingResponse {
+	private Long recipeId;
+	private Long userId;
+	private int score;
+	private LocalDateTime timestamp;
+
+	public RatingResponse(Long recipeId, Long userId, int score, LocalDateTime timestamp) {
+		this.recipeId = recipeId;
+		this.userId = userId;
+		this.score = score;
+		this.timestamp = timestamp;
+	}
+
+	public Long getRecipeId() {
+		return recipeId;
+	}
+
+	public void setRecipeId(Long recipeId) {
+		this.recipeId = recipeId;
+	}
+
+	public Long getUserId() {
+		return userId;
+	}
+
+	public void setUserId(Long userId) {
+		this.userId = userId;
+	}
+
+	public int getScore() {
+		return score;
+	}
+
+	public void setScore(int score) {
+		this.score = score;
+	}
+
+	public LocalDateTime getTimestamp() {
+		return timestamp;
+	}
+
+	public void setTimestamp(LocalDateTime timestamp) {
+		this.timestamp = timestamp;
+	}
+
+	@Override
+	public String toString() {
+		return "RatingResponse{" +
+				"recipeId=" + recipeId +
+				", userId=" + userId +
+				", score=" + score +
+				", timestamp=" + timestamp +
+				'}';
+	}
+}
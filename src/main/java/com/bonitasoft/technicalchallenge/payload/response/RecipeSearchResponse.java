@@ -0,0 +1,50 @@
+package com.bonitasoft.technicalchallenge.payload.response;
+
+import com.bonitasoft.technicalchallenge.repository.projection.RecipeSummary;
+
+import java.util.List;
+
+public class RecipeSearchResponse {
+	private List<RecipeSummary> results;
+	private List<String> suggestions;
+	private String correctedQuery;
+
+	public RecipeSearchResponse(List<RecipeSummary> results, List<String> suggestions, String correctedQuery) {
+		this.results = results;
+		this.suggestions = suggestions;
+		this.correctedQuery = correctedQuery;
+	}
+
+	public List<RecipeSummary> getResults() {
+		return results;
+	}
+
+	public void setResults(List<RecipeSummary> results) {
+		this.results = results;
+	}
+
+	public List<String> getSuggestions() {
+		return suggestions;
+	}
+
+	public void setSuggestions(List<String> suggestions) {
+		this.suggestions = suggestions;
+	}
+
+	public String getCorrectedQuery() {
+		return correctedQuery;
+	}
+
+	public void setCorrectedQuery(String correctedQuery) {
+		this.correctedQuery = correctedQuery;
+	}
+
+	@Override
+	public String toString() {
+		return "RecipeSearchResponse{" +
+				"results=" + results +
+				", suggestions=" + suggestions +
+				", correctedQuery='" + correctedQuery + '\'' +
+				'}';
+	}
+}
@@ -0,0 +1,57 @@
+package com.bonitasoft.technicalchallenge.payload.response;
+
+public class TrendingRecipeResponse {
+	private Long id;
+	private String title;
+	private String authorUsername;
+	private long views;
+
+	public TrendingRecipeResponse(Long id, String title, String authorUsername, long views) {
+		this.id = id;
+		this.title = title;
+		this.authorUsername = authorUsername;
+		this.views = views;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	public void setTitle(String title) {
+		this.title = title;
+	}
+
+	public String getAuthorUsername() {
+		return authorUsername;
+	}
+
+	public void setAuthorUsername(String authorUsername) {
+		this.authorUsername = authorUsername;
+	}
+
+	public long getViews() {
+		return views;
+	}
+
+	public void setViews(long views) {
+		this.views = views;
+	}
+
+	@Override
+	public String toString() {
+		return "TrendingRecipeResponse{" +
+				"id=" + id +
+				", title='" + title + '\'' +
+				", authorUsername='" + authorUsername + '\'' +
+				", views=" + views +
+				'}';
+	}
+}
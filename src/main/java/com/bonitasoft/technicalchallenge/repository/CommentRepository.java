@@ -1,7 +1,34 @@
 package com.bonitasoft.technicalchallenge.repository;
 
 import com.bonitasoft.technicalchallenge.model.Comment;
+import com.bonitasoft.technicalchallenge.repository.projection.CommentSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    String SUMMARY_SELECT = "select c.id as id, c.text as text, c.timestamp as timestamp, " +
+            "a.id as authorId, a.username as authorUsername " +
+            "from Comment c left join c.author a ";
+
+    // Newest first; both queries walk the (recipe_id, timestamp, id) index backwards.
+    @Query(SUMMARY_SELECT + "where c.recipe.id = :recipeId order by c.timestamp desc, c.id desc")
+    List<CommentSummary> findLatest(@Param("recipeId") long recipeId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "where c.recipe.id = :recipeId " +
+            "and (c.timestamp < :timestamp or (c.timestamp = :timestamp and c.id < :id)) " +
+            "order by c.timestamp desc, c.id desc")
+    List<CommentSummary> findBefore(@Param("recipeId") long recipeId, @Param("timestamp") LocalDateTime timestamp,
+                                    @Param("id") long id, Pageable pageable);
+
+    // Oldest first, to replay what a stream subscriber missed.
+    @Query(SUMMARY_SELECT + "where c.recipe.id = :recipeId " +
+            "and (c.timestamp > :timestamp or (c.timestamp = :timestamp and c.id > :id)) " +
+            "order by c.timestamp, c.id")
+    List<CommentSummary> findAfter(@Param("recipeId") long recipeId, @Param("timestamp") LocalDateTime timestamp,
+                                   @Param("id") long id, Pageable pageable);
 }
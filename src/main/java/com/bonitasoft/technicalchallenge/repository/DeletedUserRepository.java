@@ -0,0 +1,22 @@
+package com.bonitasoft.technicalchallenge.repository;
+
+import com.bonitasoft.technicalchallenge.model.DeletedUser;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface DeletedUserRepository extends JpaRepository<DeletedUser, Long> {
+    @Query("select d.userId from DeletedUser d where d.deletedAt > :since")
+    List<Long> findUserIdsDeletedAfter(@Param("since") LocalDateTime since);
+
+    // Users deleted before every token still valid was issued have nothing left to revoke.
+    @Transactional
+    @Modifying
+    @Query("delete from DeletedUser d where d.deletedAt <= :before")
+    int deleteDeletedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,47 @@
+package com.bonitasoft.technicalchallenge.repository;
+
+import com.bonitasoft.technicalchallenge.model.Comment;
+import com.bonitasoft.technicalchallenge.model.Recipe;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Recipe and comment ids used to come from IDENTITY columns: moves the sequences Hibernate now allocates ids from
+// past the existing rows. Runs before the web server starts accepting requests, once Hibernate has updated the schema.
+@Component
+public class IdSequenceInitializer {
+    private static final Logger logger = LoggerFactory.getLogger(IdSequenceInitializer.class);
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    // Not used, but the schema is only up to date once the factory is built.
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void alignSequences() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+        align("recipe", Recipe.ID_SEQUENCE);
+        align("comment", Comment.ID_SEQUENCE);
+    }
+
+    private void align(String table, String sequence) {
+        List<Long> aligned = jdbcTemplate.queryForList(String.format(
+                "select setval('%1$s', t.max_id) from (select max(id) as max_id from %2$s) t " +
+                        "where t.max_id >= (select last_value from %1$s)", sequence, table), Long.class);
+        if (!aligned.isEmpty()) {
+            logger.info("Sequence {} moved past the existing {} ids", sequence, table);
+        }
+    }
+}
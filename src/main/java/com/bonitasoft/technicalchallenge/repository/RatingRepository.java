@@ -0,0 +1,29 @@
+package com.bonitasoft.technicalchallenge.repository;
+
+import com.bonitasoft.technicalchallenge.model.Rating;
+import com.bonitasoft.technicalchallenge.repository.projection.RatingScore;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface RatingRepository extends JpaRepository<Rating, Long> {
+    // Locked so two concurrent re-ratings by the same user cannot both apply their delta to the old score.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from Rating r where r.recipe.id = :recipeId and r.user.id = :userId")
+    Optional<Rating> findForUpdate(@Param("recipeId") long recipeId, @Param("userId") long userId);
+
+    // Ratings the user gave to other authors' recipes; those on their own recipes go away with the recipes.
+    @Query("select r.recipe.id as recipeId, r.score as score from Rating r " +
+            "where r.user.id = :userId and (r.recipe.author is null or r.recipe.author.id <> :userId)")
+    List<RatingScore> findScoresGivenToOthers(@Param("userId") long userId);
+
+    @Modifying
+    @Query("delete from Rating r where r.user.id = :userId")
+    int deleteByUserId(@Param("userId") long userId);
+}
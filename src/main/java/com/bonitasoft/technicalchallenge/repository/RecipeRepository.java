@@ -1,14 +1,113 @@
 package com.bonitasoft.technicalchallenge.repository;
 
 import com.bonitasoft.technicalchallenge.model.Recipe;
-import com.bonitasoft.technicalchallenge.model.User;
+import com.bonitasoft.technicalchallenge.repository.projection.ChefRecipeStats;
+import com.bonitasoft.technicalchallenge.repository.projection.RecipeChange;
+import com.bonitasoft.technicalchallenge.repository.projection.RecipeSummary;
+import com.bonitasoft.technicalchallenge.repository.projection.RecipeText;
+import com.bonitasoft.technicalchallenge.repository.projection.RecipeVersion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface RecipeRepository extends JpaRepository<Recipe, Long> {
-    List<Recipe> findByKeywordsContainingIgnoreCase(String keywords);
+    String SUMMARY_COLUMNS = "select r.id as id, r.title as title, r.keywords as keywords, " +
+            "a.id as authorId, a.username as authorUsername, size(r.comments) as commentCount, " +
+            "r.ratingAverage as ratingAverage, r.ratingCount as ratingCount ";
+    String SUMMARY_FROM = "from Recipe r left join r.author a ";
+    String SUMMARY_SELECT = SUMMARY_COLUMNS + SUMMARY_FROM;
 
-    List<Recipe> findByAuthor_Id(long author);
+    // Recipe, author and comment count in one statement; the author's roles follow when serialized.
+    @EntityGraph(Recipe.DETAIL_GRAPH)
+    @Query("select r from Recipe r where r.id = :id")
+    Optional<Recipe> findDetailedById(@Param("id") long id);
+
+    // Keyset page: seeks past the last id seen instead of counting skipped rows, so deep pages cost the same as the first one.
+    @Query(SUMMARY_SELECT + "where r.id > :afterId order by r.id")
+    List<RecipeSummary> findSummariesAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    // Same rows as findSummariesAfter without the joins, enough to tell whether a page changed.
+    @Query("select r.id as id, r.version as version from Recipe r where r.id > :afterId order by r.id")
+    List<RecipeVersion> findVersionsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("select r.version from Recipe r where r.id = :id")
+    Optional<Long> findVersionById(@Param("id") long id);
+
+    // Keyset pages walking idx_recipe_rating backwards; unrated recipes have an average of 0 and are left out.
+    @Query(SUMMARY_SELECT + "where r.ratingAverage > 0 order by r.ratingAverage desc, r.id desc")
+    List<RecipeSummary> findTopRated(Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "where r.ratingAverage > 0 " +
+            "and (r.ratingAverage < :average or (r.ratingAverage = :average and r.id < :id)) " +
+            "order by r.ratingAverage desc, r.id desc")
+    List<RecipeSummary> findTopRatedBefore(@Param("average") double average, @Param("id") long id, Pageable pageable);
+
+    // Change feed keyset on idx_recipe_updated_at. Rows stamped after :until may still belong to uncommitted
+    // transactions that started earlier, so they wait for a later call, see RecipeChangeService.
+    @Query(SUMMARY_COLUMNS + ", r.updatedAt as updatedAt " + SUMMARY_FROM + "where r.updatedAt < :until " +
+            "and (r.updatedAt > :updatedAt or (r.updatedAt = :updatedAt and r.id > :id)) " +
+            "order by r.updatedAt, r.id")
+    List<RecipeChange> findChangesAfter(@Param("updatedAt") LocalDateTime updatedAt, @Param("id") long id,
+                                        @Param("until") LocalDateTime until, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "where a.id = :authorId order by r.id")
+    List<RecipeSummary> findSummariesByAuthor(@Param("authorId") long authorId);
+
+    // One grouped statement: the chef's recipes through idx_recipe_author, their comments through idx_comment_recipe_timestamp.
+    @Query("select r.id as id, r.title as title, count(c.id) as commentCount, max(c.timestamp) as lastCommentAt, " +
+            "r.ratingCount as ratingCount, r.ratingAverage as ratingAverage " +
+            "from Recipe r left join r.comments c where r.author.id = :authorId " +
+            "group by r.id, r.title, r.ratingCount, r.ratingAverage order by r.id")
+    List<ChefRecipeStats> findStatsByAuthor(@Param("authorId") long authorId);
+
+    @Query("select r.id from Recipe r where r.author.id = :authorId")
+    List<Long> findIdsByAuthor(@Param("authorId") long authorId);
+
+    @Query(SUMMARY_SELECT + "where r.id in :ids")
+    List<RecipeSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Ranked through the GIN-indexed search_vector column, see db/recipe-fulltext.sql.
+    @Query(value = "select r.id from recipe r, websearch_to_tsquery('english', :query) q " +
+            "where r.search_vector @@ q order by ts_rank(r.search_vector, q) desc, r.id limit :limit offset :offset",
+            nativeQuery = true)
+    List<Long> searchFullText(@Param("query") String query, @Param("limit") int limit, @Param("offset") int offset);
+
+    @Query("select r.id as id, r.title as title, r.keywords as keywords, r.ingredients as ingredients from Recipe r")
+    Stream<RecipeText> streamAllTexts();
+
+    // Comments are stored apart from the recipe row, so adding one has to bump the recipe version explicitly.
+    @Transactional
+    @Modifying
+    @Query("update Recipe r set r.version = r.version + 1, r.updatedAt = :updatedAt where r.id = :id")
+    int bumpVersion(@Param("id") long id, @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Applies a rating change to the running aggregates; every right-hand side reads the row as it was before the update.
+    // Removing the last rating puts the average back to 0, as for an unrated recipe.
+    // Average and count are part of the recipe payload, hence the version bump.
+    @Transactional
+    @Modifying
+    @Query("update Recipe r set r.ratingSum = r.ratingSum + :scoreDelta, r.ratingCount = r.ratingCount + :countDelta, " +
+            "r.ratingAverage = case when r.ratingCount + :countDelta = 0 then 0 " +
+            "else cast(r.ratingSum + :scoreDelta as double) / (r.ratingCount + :countDelta) end, " +
+            "r.version = r.version + 1, r.updatedAt = :updatedAt where r.id = :id")
+    int addRating(@Param("id") long id, @Param("scoreDelta") long scoreDelta, @Param("countDelta") int countDelta,
+                  @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Recipe and comment authors are part of the recipe payloads, so changing a user changes every recipe they appear in.
+    @Transactional
+    @Modifying
+    @Query("update Recipe r set r.version = r.version + 1, r.updatedAt = :updatedAt " +
+            "where r.author.id = :userId or r.id in (select c.recipe.id from Comment c where c.author.id = :userId)")
+    int bumpVersionsByUser(@Param("userId") long userId, @Param("updatedAt") LocalDateTime updatedAt);
 
 }
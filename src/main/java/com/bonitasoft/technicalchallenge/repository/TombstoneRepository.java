@@ -0,0 +1,27 @@
+package com.bonitasoft.technicalchallenge.repository;
+
+import com.bonitasoft.technicalchallenge.model.Tombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TombstoneRepository extends JpaRepository<Tombstone, Long> {
+    // Same keyset as RecipeRepository.findChangesAfter, bounded by :until.
+    @Query("select t from Tombstone t where t.deletedAt < :until " +
+            "and (t.deletedAt > :deletedAt or (t.deletedAt = :deletedAt and t.recipeId > :recipeId)) " +
+            "order by t.deletedAt, t.recipeId")
+    List<Tombstone> findAfter(@Param("deletedAt") LocalDateTime deletedAt, @Param("recipeId") long recipeId,
+                              @Param("until") LocalDateTime until, Pageable pageable);
+
+    // For the recipes about to go with their author, see RecipeChangeService.deleteUser. Native: HQL insert-select
+    // does not accept a parameter in its select list.
+    @Modifying
+    @Query(value = "insert into tombstone (recipe_id, deleted_at) select r.id, :deletedAt from recipe r where r.author_id = :authorId",
+            nativeQuery = true)
+    int insertForAuthor(@Param("authorId") long authorId, @Param("deletedAt") LocalDateTime deletedAt);
+}
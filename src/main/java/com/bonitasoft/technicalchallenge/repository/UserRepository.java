@@ -1,9 +1,14 @@
 package com.bonitasoft.technicalchallenge.repository;
 
 import com.bonitasoft.technicalchallenge.model.User;
+import com.bonitasoft.technicalchallenge.repository.projection.UserTokenVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,4 +18,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
   Boolean existsByUsername(String username);
 
   Boolean existsByEmail(String email);
+
+  // Only users whose tokens were ever revoked, to seed TokenRevocations at startup.
+  @Query("select u.id as id, u.tokenVersion as tokenVersion from User u where u.tokenVersion > 0")
+  List<UserTokenVersion> findRevokedTokenVersions();
+
+  @Modifying
+  @Query("update User u set u.password = :password where u.username = :username")
+  int updatePassword(@Param("username") String username, @Param("password") String password);
 }
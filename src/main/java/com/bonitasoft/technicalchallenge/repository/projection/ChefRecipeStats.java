@@ -0,0 +1,20 @@
+package com.bonitasoft.technicalchallenge.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-recipe activity for the chef dashboard, aggregated in SQL so comment rows never leave the database.
+ */
+public interface ChefRecipeStats {
+    Long getId();
+
+    String getTitle();
+
+    long getCommentCount();
+
+    LocalDateTime getLastCommentAt();
+
+    int getRatingCount();
+
+    double getRatingAverage();
+}
@@ -0,0 +1,15 @@
+package com.bonitasoft.technicalchallenge.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface CommentSummary {
+    Long getId();
+
+    String getText();
+
+    LocalDateTime getTimestamp();
+
+    Long getAuthorId();
+
+    String getAuthorUsername();
+}
@@ -0,0 +1,7 @@
+package com.bonitasoft.technicalchallenge.repository.projection;
+
+public interface RatingScore {
+    Long getRecipeId();
+
+    int getScore();
+}
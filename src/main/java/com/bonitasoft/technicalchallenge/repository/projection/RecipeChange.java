@@ -0,0 +1,10 @@
+package com.bonitasoft.technicalchallenge.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Recipe summary with the modification time its position in the change feed is derived from.
+ */
+public interface RecipeChange extends RecipeSummary {
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,22 @@
+package com.bonitasoft.technicalchallenge.repository.projection;
+
+/**
+ * Column-level view of a recipe for list endpoints: no author entity, no comment graph.
+ */
+public interface RecipeSummary {
+    Long getId();
+
+    String getTitle();
+
+    String getKeywords();
+
+    Long getAuthorId();
+
+    String getAuthorUsername();
+
+    int getCommentCount();
+
+    double getRatingAverage();
+
+    int getRatingCount();
+}
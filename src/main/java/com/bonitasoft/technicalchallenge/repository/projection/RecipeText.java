@@ -0,0 +1,11 @@
+package com.bonitasoft.technicalchallenge.repository.projection;
+
+public interface RecipeText {
+    Long getId();
+
+    String getTitle();
+
+    String getKeywords();
+
+    String getIngredients();
+}
@@ -0,0 +1,7 @@
+package com.bonitasoft.technicalchallenge.repository.projection;
+
+public interface RecipeVersion {
+    Long getId();
+
+    long getVersion();
+}
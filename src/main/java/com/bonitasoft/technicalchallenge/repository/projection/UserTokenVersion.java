@@ -0,0 +1,7 @@
+package com.bonitasoft.technicalchallenge.repository.projection;
+
+public interface UserTokenVersion {
+    Long getId();
+
+    long getTokenVersion();
+}
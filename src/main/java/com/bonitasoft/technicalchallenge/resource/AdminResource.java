@@ -6,19 +6,33 @@ import com.bonitasoft.technicalchallenge.model.User;
 import com.bonitasoft.technicalchallenge.payload.request.auth.SignupRequest;
 import com.bonitasoft.technicalchallenge.payload.response.MessageResponse;
 import com.bonitasoft.technicalchallenge.payload.response.UserInfoResponse;
+import com.bonitasoft.technicalchallenge.repository.RecipeRepository;
 import com.bonitasoft.technicalchallenge.repository.RoleRepository;
 import com.bonitasoft.technicalchallenge.repository.UserRepository;
+import com.bonitasoft.technicalchallenge.security.jwt.TokenRevocations;
+import com.bonitasoft.technicalchallenge.security.services.PasswordHashExecutor;
 import com.bonitasoft.technicalchallenge.security.services.UserDetailsImpl;
+import com.bonitasoft.technicalchallenge.security.services.UserDetailsServiceImpl;
+import com.bonitasoft.technicalchallenge.services.cache.RecipeCache;
+import com.bonitasoft.technicalchallenge.services.export.RecipeExportService;
+import com.bonitasoft.technicalchallenge.services.search.RecipeSearchService;
+import com.bonitasoft.technicalchallenge.services.sync.RecipeChangeService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "http://localhost:4200", maxAge = 3600, allowCredentials = "true")
@@ -32,7 +46,23 @@ public class AdminResource {
     @Autowired
     RoleRepository roleRepository;
     @Autowired
+    RecipeRepository recipeRepository;
+    @Autowired
     PasswordEncoder encoder;
+    @Autowired
+    RecipeCache recipeCache;
+    @Autowired
+    RecipeExportService recipeExportService;
+    @Autowired
+    RecipeChangeService recipeChangeService;
+    @Autowired
+    RecipeSearchService recipeSearchService;
+    @Autowired
+    TokenRevocations tokenRevocations;
+    @Autowired
+    PasswordHashExecutor passwordHashExecutor;
+    @Autowired
+    UserDetailsServiceImpl userDetailsService;
 
     @GetMapping("/users")
     @PreAuthorize("hasRole('ADMIN')")
@@ -58,7 +88,14 @@ public class AdminResource {
     @DeleteMapping("/users/{userId}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> deleteUser(@PathVariable("userId") Long userId) {
-        userRepository.deleteById(userId);
+        List<Long> deletedRecipeIds = recipeChangeService.deleteUser(userId);
+        tokenRevocations.revokeAll(userId);
+        userDetailsService.evict(userId);
+        // Authors are embedded in cached recipes, and deleting one cascades to their recipes.
+        recipeCache.invalidateAll();
+        for (Long recipeId : deletedRecipeIds) {
+            recipeSearchService.removeRecipe(recipeId);
+        }
         return ResponseEntity.ok(new MessageResponse("User deleted successfully!"));
     }
 
@@ -71,8 +108,14 @@ public class AdminResource {
         user.setUsername(updateUserRequest.getUsername());
         user.setEmail(updateUserRequest.getEmail());
         user.setPassword(encoder.encode(updateUserRequest.getPassword()));
+        // Username and email are token claims.
+        user.setTokenVersion(user.getTokenVersion() + 1);
 
         userRepository.save(user);
+        tokenRevocations.revoke(userId, user.getTokenVersion());
+        userDetailsService.evict(userId);
+        recipeRepository.bumpVersionsByUser(userId, LocalDateTime.now());
+        recipeCache.invalidateAll();
         return ResponseEntity.ok(new MessageResponse("User updated successfully!"));
     }
 
@@ -87,7 +130,13 @@ public class AdminResource {
 
         user.getRoles().clear();
         user.getRoles().add(newRole);
+        // Roles are token claims: tokens issued before this change must not keep the old ones.
+        user.setTokenVersion(user.getTokenVersion() + 1);
         userRepository.save(user);
+        tokenRevocations.revoke(userId, user.getTokenVersion());
+        userDetailsService.evict(userId);
+        recipeRepository.bumpVersionsByUser(userId, LocalDateTime.now());
+        recipeCache.invalidateAll();
 
         return ResponseEntity.ok().body(new MessageResponse("Role updated successfully!"));
     }
@@ -103,11 +152,42 @@ public class AdminResource {
 
         if (user.getRoles().contains(roleToRemove)) {
             user.getRoles().remove(roleToRemove);
+            user.setTokenVersion(user.getTokenVersion() + 1);
             userRepository.save(user);
+            tokenRevocations.revoke(userId, user.getTokenVersion());
+            userDetailsService.evict(userId);
+            recipeRepository.bumpVersionsByUser(userId, LocalDateTime.now());
+            recipeCache.invalidateAll();
             return ResponseEntity.ok().body(new MessageResponse("Role removed successfully!"));
         } else {
             return ResponseEntity.badRequest().body(new MessageResponse("Error: User does not have the specified role."));
         }
     }
 
+    @GetMapping("/cache/recipes")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getRecipeCacheStats() {
+        return ResponseEntity.ok().body(recipeCache.stats());
+    }
+
+    @GetMapping("/password-hashing")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getPasswordHashingStats() {
+        return ResponseEntity.ok().body(passwordHashExecutor.stats());
+    }
+
+    @GetMapping("/export/recipes")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> exportRecipes(@RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        Optional<RecipeExportService.Format> exportFormat = RecipeExportService.Format.parse(format);
+        if (exportFormat.isEmpty()) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: format must be 'ndjson' or 'csv'"));
+        }
+        StreamingResponseBody body = outputStream -> recipeExportService.export(exportFormat.get(), outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.get().getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("recipes." + exportFormat.get().getExtension()).build().toString())
+                .body(body);
+    }
 }
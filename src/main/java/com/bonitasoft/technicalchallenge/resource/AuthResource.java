@@ -11,12 +11,15 @@ import com.bonitasoft.technicalchallenge.repository.RoleRepository;
 import com.bonitasoft.technicalchallenge.repository.UserRepository;
 import com.bonitasoft.technicalchallenge.security.jwt.JwtUtils;
 import com.bonitasoft.technicalchallenge.security.services.EmailService;
+import com.bonitasoft.technicalchallenge.security.services.LoginThrottle;
 import com.bonitasoft.technicalchallenge.security.services.UserDetailsImpl;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -57,10 +60,19 @@ public class AuthResource {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    LoginThrottle loginThrottle;
+
 
     @PostMapping("/signin")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest, HttpServletRequest request) {
         logger.info("request" + loginRequest);
+        long retryAfter = loginThrottle.tryAcquire(loginRequest.getUsername(), request.getRemoteAddr());
+        if (retryAfter > 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                    .body(new MessageResponse("Error: Too many sign-in attempts, please retry later"));
+        }
         Authentication authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -1,28 +1,55 @@
 package com.bonitasoft.technicalchallenge.resource;
 
-import com.bonitasoft.technicalchallenge.model.Comment;
+import com.bonitasoft.technicalchallenge.model.Rating;
 import com.bonitasoft.technicalchallenge.model.Recipe;
 import com.bonitasoft.technicalchallenge.model.User;
 import com.bonitasoft.technicalchallenge.payload.request.recipe.CreateCommentRequest;
 import com.bonitasoft.technicalchallenge.payload.request.recipe.CreateRecipeRequest;
+import com.bonitasoft.technicalchallenge.payload.request.recipe.RateRecipeRequest;
 import com.bonitasoft.technicalchallenge.payload.request.recipe.UpdateRecipeRequest;
+import com.bonitasoft.technicalchallenge.payload.response.ChefSummaryResponse;
+import com.bonitasoft.technicalchallenge.payload.response.CommentResponse;
 import com.bonitasoft.technicalchallenge.payload.response.MessageResponse;
+import com.bonitasoft.technicalchallenge.payload.response.PageResponse;
+import com.bonitasoft.technicalchallenge.payload.response.RatingResponse;
 import com.bonitasoft.technicalchallenge.repository.CommentRepository;
 import com.bonitasoft.technicalchallenge.repository.RecipeRepository;
 import com.bonitasoft.technicalchallenge.repository.UserRepository;
+import com.bonitasoft.technicalchallenge.repository.projection.CommentSummary;
+import com.bonitasoft.technicalchallenge.repository.projection.RecipeSummary;
 import com.bonitasoft.technicalchallenge.security.services.UserDetailsImpl;
+import com.bonitasoft.technicalchallenge.services.bulk.RecipeImportService;
+import com.bonitasoft.technicalchallenge.services.cache.CachedRecipe;
+import com.bonitasoft.technicalchallenge.services.cache.RecipeCache;
+import com.bonitasoft.technicalchallenge.services.comments.CommentStreamHub;
+import com.bonitasoft.technicalchallenge.services.comments.CommentWriteBuffer;
+import com.bonitasoft.technicalchallenge.services.popularity.RecipeViewCounter;
+import com.bonitasoft.technicalchallenge.services.ratings.RatingService;
+import com.bonitasoft.technicalchallenge.services.search.RecipeSearchService;
+import com.bonitasoft.technicalchallenge.services.sync.RecipeChangeService;
+import com.bonitasoft.technicalchallenge.utils.CursorCodec;
+import com.bonitasoft.technicalchallenge.utils.ETags;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,6 +58,10 @@ import java.util.Optional;
 @RequestMapping("/api/recipe")
 public class RecipeResource {
     private static final Logger logger = LoggerFactory.getLogger(RecipeResource.class);
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_PANTRY_SIZE = 50;
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final int MAX_MISSING_INGREDIENTS = 5;
 
     @Autowired
     RecipeRepository recipeRepository;
@@ -41,6 +72,30 @@ public class RecipeResource {
     @Autowired
     CommentRepository commentRepository;
 
+    @Autowired
+    RecipeSearchService recipeSearchService;
+
+    @Autowired
+    RecipeCache recipeCache;
+
+    @Autowired
+    RecipeImportService recipeImportService;
+
+    @Autowired
+    CommentWriteBuffer commentWriteBuffer;
+
+    @Autowired
+    CommentStreamHub commentStreamHub;
+
+    @Autowired
+    RecipeViewCounter recipeViewCounter;
+
+    @Autowired
+    RatingService ratingService;
+
+    @Autowired
+    RecipeChangeService recipeChangeService;
+
     @PostMapping()
     @PreAuthorize("hasRole('CHEF')")
     public ResponseEntity<?> createRecipe(@Valid @RequestBody CreateRecipeRequest createRecipeRequest, Authentication authentication) {
@@ -51,6 +106,7 @@ public class RecipeResource {
             return userOptional.map(user1 -> {
                 Recipe recipe = new Recipe(createRecipeRequest.getTitle(), createRecipeRequest.getIngredients(), user1, createRecipeRequest.getKeywords());
                 Recipe saved = recipeRepository.save(recipe);
+                recipeSearchService.indexRecipe(saved);
                 return ResponseEntity.ok(saved);
             }).orElseThrow(() -> new RuntimeException("Error: getting chef details."));
         } catch (Exception e) {
@@ -60,11 +116,42 @@ public class RecipeResource {
         }
     }
 
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasRole('CHEF')")
+    public ResponseEntity<?> importRecipes(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body,
+                                           Authentication authentication) {
+        UserDetailsImpl user = (UserDetailsImpl) authentication.getPrincipal();
+        try {
+            if (MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+                return ResponseEntity.ok(recipeImportService.importNdjson(user.getId(), body));
+            }
+            return ResponseEntity.ok(recipeImportService.importJsonArray(user.getId(), body));
+        } catch (IOException e) {
+            logger.error("Error occurred while importing recipes", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageResponse("Error occurred while importing recipes"));
+        }
+    }
+
     @GetMapping()
-    public ResponseEntity<?> getAllRecipes() {
+    public ResponseEntity<?> getAllRecipes(@RequestParam(value = "cursor", required = false) String cursor,
+                                           @RequestParam(value = "size", defaultValue = "20") int size,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        long afterId;
         try {
-            List<Recipe> recipes = recipeRepository.findAll();
-            return ResponseEntity.ok().body(recipes);
+            afterId = cursor == null ? 0L : CursorCodec.decode(cursor, 1)[0];
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: Invalid cursor"));
+        }
+        try {
+            int pageSize = pageSize(size);
+            String etag = ETags.page(afterId, pageSize, recipeRepository.findVersionsAfter(afterId, PageRequest.of(0, pageSize + 1)));
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            List<RecipeSummary> recipes = recipeRepository.findSummariesAfter(afterId, PageRequest.of(0, pageSize + 1));
+            return ResponseEntity.ok().eTag(etag)
+                    .body(PageResponse.of(recipes, pageSize, recipe -> CursorCodec.encode(recipe.getId())));
         } catch (Exception e) {
             logger.error("Error occurred while retrieving recipes", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -76,7 +163,7 @@ public class RecipeResource {
     public ResponseEntity<?> getAllRecipesByChef(Authentication authentication) {
         try {
             UserDetailsImpl user = (UserDetailsImpl) authentication.getPrincipal();
-            List<Recipe> recipes = recipeRepository.findByAuthor_Id(user.getId());
+            List<RecipeSummary> recipes = recipeRepository.findSummariesByAuthor(user.getId());
             return ResponseEntity.ok().body(recipes);
         } catch (Exception e) {
             logger.error("Error occurred while retrieving recipes", e);
@@ -84,12 +171,46 @@ public class RecipeResource {
                     .body(new MessageResponse("Error occurred while retrieving recipes"));
         }
     }
+    @GetMapping("chef/summary")
+    @PreAuthorize("hasRole('CHEF')")
+    public ResponseEntity<?> getChefSummary(Authentication authentication) {
+        try {
+            UserDetailsImpl user = (UserDetailsImpl) authentication.getPrincipal();
+            return ResponseEntity.ok().body(ChefSummaryResponse.of(recipeRepository.findStatsByAuthor(user.getId())));
+        } catch (Exception e) {
+            logger.error("Error occurred while retrieving recipe statistics", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageResponse("Error occurred while retrieving recipe statistics"));
+        }
+    }
     @GetMapping("{id_recipe}")
-    public ResponseEntity<?> getRecipeByID(@PathVariable long id_recipe) {
+    public ResponseEntity<?> getRecipeByID(@PathVariable long id_recipe,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            Optional<Recipe> recipeOptional = recipeRepository.findById(id_recipe);
+            if (ifNoneMatch != null) {
+                Optional<Long> version = recipeCache.version(id_recipe);
+                if (version.isPresent() && ETags.matches(ifNoneMatch, ETags.recipe(id_recipe, version.get()))) {
+                    recipeViewCounter.record(id_recipe);
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                            .eTag(ETags.recipe(id_recipe, version.get()))
+                            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                            .build();
+                }
+            }
+            Optional<CachedRecipe> recipeOptional = recipeCache.get(id_recipe);
             if (recipeOptional.isPresent()) {
-                return ResponseEntity.ok().body(recipeOptional.get());
+                // The cached bytes are written as they are, without going through Jackson again.
+                CachedRecipe recipe = recipeOptional.get();
+                recipeViewCounter.record(id_recipe);
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                        .eTag(ETags.recipe(recipe.id(), recipe.version()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                if (recipe.hasGzip() && acceptsGzip(acceptEncoding)) {
+                    return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(recipe.gzip());
+                }
+                return response.body(recipe.json());
             }else {
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                         .body(new MessageResponse(String.format("Recipe:%s not Found ", id_recipe)));
@@ -118,6 +239,8 @@ public class RecipeResource {
             recipe.setTitle(updateRecipeRequest.getTitle());
             recipe.setKeywords(updateRecipeRequest.getKeywords());
             Recipe saved = recipeRepository.save(recipe);
+            recipeCache.invalidate(saved.getId());
+            recipeSearchService.indexRecipe(saved);
             return ResponseEntity.ok().body(saved);
         } else {
             return ResponseEntity.badRequest().body(new MessageResponse("Error: Recipe not found"));
@@ -134,7 +257,9 @@ public class RecipeResource {
             Recipe recipe = optionalRecipe.get();
 
             if (recipe.getAuthor().getId().equals(user.getId())) {
-                recipeRepository.delete(recipe);
+                recipeChangeService.deleteRecipe(recipe);
+                recipeCache.invalidate(recipeId);
+                recipeSearchService.removeRecipe(recipeId);
                 return ResponseEntity.noContent().build();
             } else {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
@@ -146,32 +271,167 @@ public class RecipeResource {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<?> searchRecipes(@RequestParam("keywords") String keywords) {
-        logger.info("keywords" + keywords);
-        List<Recipe> recipes = recipeRepository.findByKeywordsContainingIgnoreCase(keywords);
-        logger.info("result"+recipes);
-        return ResponseEntity.ok().body(recipes);
+    public ResponseEntity<?> searchRecipes(@RequestParam("keywords") String keywords,
+                                           @RequestParam(value = "operator", defaultValue = "and") String operator,
+                                           @RequestParam(value = "page", defaultValue = "0") int page,
+                                           @RequestParam(value = "size", defaultValue = "20") int size,
+                                           @RequestParam(value = "autocorrect", defaultValue = "false") boolean autocorrect) {
+        if (!operator.equalsIgnoreCase("and") && !operator.equalsIgnoreCase("or")) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: operator must be 'and' or 'or'"));
+        }
+        int pageSize = pageSize(size);
+        if ((long) Math.max(page, 0) * pageSize > RecipeSearchService.MAX_OFFSET) {
+            return ResponseEntity.badRequest().body(new MessageResponse(String.format("Error: results past the first %s cannot be paged to", RecipeSearchService.MAX_OFFSET)));
+        }
+        return ResponseEntity.ok().body(recipeSearchService.searchWithSuggestions(keywords, operator.equalsIgnoreCase("and"),
+                Math.max(page, 0), pageSize, autocorrect));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggest(@RequestParam("prefix") String prefix,
+                                     @RequestParam(value = "size", defaultValue = "10") int size) {
+        return ResponseEntity.ok().body(recipeSearchService.suggest(prefix, Math.max(1, Math.min(size, MAX_SUGGESTIONS))));
+    }
+
+    @GetMapping("/cookable")
+    public ResponseEntity<?> getCookableRecipes(@RequestParam("ingredients") List<String> ingredients,
+                                                @RequestParam(value = "missing", defaultValue = "0") int missing,
+                                                @RequestParam(value = "size", defaultValue = "20") int size) {
+        if (ingredients.isEmpty() || ingredients.size() > MAX_PANTRY_SIZE) {
+            return ResponseEntity.badRequest().body(new MessageResponse(String.format("Error: between 1 and %s ingredients are required", MAX_PANTRY_SIZE)));
+        }
+        if (missing < 0 || missing > MAX_MISSING_INGREDIENTS) {
+            return ResponseEntity.badRequest().body(new MessageResponse(String.format("Error: missing must be between 0 and %s", MAX_MISSING_INGREDIENTS)));
+        }
+        return ResponseEntity.ok().body(recipeSearchService.cookable(ingredients, missing, pageSize(size)));
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<?> getTrendingRecipes(@RequestParam(value = "size", defaultValue = "10") int size) {
+        // Prepared by the view counter at each flush, see RecipeViewCounter
+        return ResponseEntity.ok().body(recipeViewCounter.trending(pageSize(size)));
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<?> getChanges(@RequestParam(value = "since", required = false) String since,
+                                        @RequestParam(value = "size", defaultValue = "100") int size) {
+        try {
+            return ResponseEntity.ok().body(recipeChangeService.changesSince(since, pageSize(size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: Invalid sync token"));
+        }
+    }
+
+    @GetMapping("/top-rated")
+    public ResponseEntity<?> getTopRatedRecipes(@RequestParam(value = "cursor", required = false) String cursor,
+                                                @RequestParam(value = "size", defaultValue = "20") int size) {
+        long[] position;
+        try {
+            position = cursor == null ? null : CursorCodec.decode(cursor, 2);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: Invalid cursor"));
+        }
+        int pageSize = pageSize(size);
+        // The average travels as its exact bits so the seek compares equal to the stored value.
+        List<RecipeSummary> recipes = position == null
+                ? recipeRepository.findTopRated(PageRequest.of(0, pageSize + 1))
+                : recipeRepository.findTopRatedBefore(Double.longBitsToDouble(position[0]), position[1], PageRequest.of(0, pageSize + 1));
+        return ResponseEntity.ok().body(PageResponse.of(recipes, pageSize, recipe -> CursorCodec.encode(
+                Double.doubleToLongBits(recipe.getRatingAverage()), recipe.getId())));
+    }
+
+    @PutMapping("/{recipeId}/rating")
+    @PreAuthorize("hasRole('USER') or hasRole('CHEF')")
+    public ResponseEntity<?> rateRecipe(@PathVariable("recipeId") Long recipeId, @Valid @RequestBody RateRecipeRequest rateRecipeRequest) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        Optional<Rating> rating;
+        try {
+            rating = ratingService.rate(recipeId, userDetails.getId(), rateRecipeRequest.getScore());
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new MessageResponse("Error: Rating changed concurrently, please retry"));
+        }
+        if (rating.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        recipeCache.invalidate(recipeId);
+        return ResponseEntity.ok().body(new RatingResponse(recipeId, userDetails.getId(), rating.get().getScore(), rating.get().getTimestamp()));
+    }
+
+    @GetMapping("/{recipeId}/comments")
+    public ResponseEntity<?> getComments(@PathVariable("recipeId") Long recipeId,
+                                         @RequestParam(value = "cursor", required = false) String cursor,
+                                         @RequestParam(value = "size", defaultValue = "20") int size) {
+        long[] position;
+        try {
+            position = cursor == null ? null : CursorCodec.decode(cursor, 3);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: Invalid cursor"));
+        }
+        int pageSize = pageSize(size);
+        List<CommentSummary> comments;
+        try {
+            comments = position == null
+                    ? commentRepository.findLatest(recipeId, PageRequest.of(0, pageSize + 1))
+                    : commentRepository.findBefore(recipeId, LocalDateTime.ofEpochSecond(position[0], (int) position[1], ZoneOffset.UTC),
+                    position[2], PageRequest.of(0, pageSize + 1));
+        } catch (DateTimeException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: Invalid cursor"));
+        }
+        if (comments.isEmpty() && position == null && !recipeRepository.existsById(recipeId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().body(PageResponse.of(comments, pageSize, comment -> CursorCodec.encode(
+                comment.getTimestamp().toEpochSecond(ZoneOffset.UTC), comment.getTimestamp().getNano(), comment.getId())));
     }
 
     @PostMapping("/{recipeId}/comments")
     @PreAuthorize("hasRole('USER') or hasRole('CHEF')")
     public ResponseEntity<?> addCommentToRecipe(@PathVariable("recipeId") Long recipeId, @Valid @RequestBody CreateCommentRequest createCommentRequest) {
-        // Check if the recipe exists
-        Optional<Recipe> optionalRecipe = recipeRepository.findById(recipeId);
-        if (!optionalRecipe.isPresent()) {
+        // Version lookup only: served from the recipe cache when it holds the recipe, a single column otherwise
+        if (recipeCache.version(recipeId).isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-        User user = new User();
-        user.setId(userDetails.getId());
-        Comment comment = new Comment();
-        comment.setText(createCommentRequest.getContent());
-        comment.setAuthor(user);
-        comment.setRecipe(optionalRecipe.get());
-        comment.setTimestamp(LocalDateTime.now());
-        commentRepository.save(comment);
-        return ResponseEntity.ok().build();
+        // Written asynchronously in batches, see CommentWriteBuffer
+        Optional<CommentResponse> comment = commentWriteBuffer.submit(recipeId, userDetails.getId(), createCommentRequest.getContent());
+        if (comment.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new MessageResponse("Error: Too many comments, please retry later"));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(comment.get());
+    }
+
+    @GetMapping(value = "/{recipeId}/comments/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamComments(@PathVariable("recipeId") Long recipeId,
+                                                     @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        if (recipeCache.version(recipeId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(commentStreamHub.subscribe(recipeId, lastEventId));
+    }
+
+    private static int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, MAX_PAGE_SIZE));
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,30 @@
+package com.bonitasoft.technicalchallenge.resource;
+
+import com.bonitasoft.technicalchallenge.payload.response.MessageResponse;
+import com.bonitasoft.technicalchallenge.security.services.PasswordHashingRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+// Errors shared by several resources, answered the same way whichever endpoint raised them.
+@RestControllerAdvice
+public class ResourceExceptionHandler {
+    // Every password hash or check runs on PasswordHashExecutor (see ExecutorPasswordEncoder), which sheds load when saturated.
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<?> handlePasswordHashingRejected() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new MessageResponse("Error: Too many password checks in progress, please retry later"));
+    }
+
+    // Comments, ratings and user changes bump Recipe.version in bulk updates, so a chef's update or delete loaded
+    // before one of them fails its version check; the chef retries on the current recipe.
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<?> handleOptimisticLockingFailure() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new MessageResponse("Error: Recipe was modified concurrently, please retry"));
+    }
+}
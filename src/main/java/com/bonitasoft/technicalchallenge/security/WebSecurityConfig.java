@@ -3,8 +3,11 @@ package com.bonitasoft.technicalchallenge.security;
 
 import com.bonitasoft.technicalchallenge.security.jwt.AuthEntryPointJwt;
 import com.bonitasoft.technicalchallenge.security.jwt.AuthTokenFilter;
+import com.bonitasoft.technicalchallenge.security.services.ExecutorPasswordEncoder;
+import com.bonitasoft.technicalchallenge.security.services.PasswordHashExecutor;
 import com.bonitasoft.technicalchallenge.security.services.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -29,6 +32,12 @@ public class WebSecurityConfig {
   @Autowired
   private AuthEntryPointJwt unauthorizedHandler;
 
+  @Autowired
+  PasswordHashExecutor passwordHashExecutor;
+
+  @Value("${cooking.app.password.strength:10}")
+  int passwordStrength;
+
   @Bean
   public AuthTokenFilter authenticationJwtTokenFilter() {
     return new AuthTokenFilter();
@@ -39,6 +48,8 @@ public class WebSecurityConfig {
       DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
       authProvider.setUserDetailsService(userDetailsService);
       authProvider.setPasswordEncoder(passwordEncoder());
+      // Re-hashes stored passwords below the configured strength on their next successful sign-in
+      authProvider.setUserDetailsPasswordService(userDetailsService);
    
       return authProvider;
   }
@@ -50,7 +61,7 @@ public class WebSecurityConfig {
 
   @Bean
   public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    return new ExecutorPasswordEncoder(new BCryptPasswordEncoder(passwordStrength), passwordHashExecutor);
   }
 
   @Bean
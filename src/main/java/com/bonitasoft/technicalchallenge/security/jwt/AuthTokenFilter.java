@@ -1,6 +1,6 @@
 package com.bonitasoft.technicalchallenge.security.jwt;
 
-import com.bonitasoft.technicalchallenge.security.services.UserDetailsServiceImpl;
+import com.bonitasoft.technicalchallenge.security.services.UserDetailsImpl;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,18 +10,21 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 public class AuthTokenFilter extends OncePerRequestFilter {
   @Autowired
   private JwtUtils jwtUtils;
 
   @Autowired
-  private UserDetailsServiceImpl userDetailsService;
+  private JwtVerifier jwtVerifier;
+
+  @Autowired
+  private TokenRevocations tokenRevocations;
 
   private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
@@ -30,11 +33,10 @@ public class AuthTokenFilter extends OncePerRequestFilter {
       throws ServletException, IOException {
     try {
       String jwt = parseJwt(request);
-      if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-        
+      // The signed claims are the principal: no user lookup, only the in-memory revocation check.
+      Optional<UserDetailsImpl> principal = jwt == null ? Optional.empty() : jwtVerifier.verify(jwt);
+      if (principal.isPresent() && !tokenRevocations.isRevoked(principal.get().getId(), principal.get().getTokenVersion())) {
+        UserDetailsImpl userDetails = principal.get();
         UsernamePasswordAuthenticationToken authentication = 
             new UsernamePasswordAuthenticationToken(userDetails,
                                                     null,
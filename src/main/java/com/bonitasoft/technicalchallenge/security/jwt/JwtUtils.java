@@ -4,21 +4,25 @@ import com.bonitasoft.technicalchallenge.security.services.UserDetailsImpl;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseCookie;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 import org.springframework.web.util.WebUtils;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.List;
 
 @Component
 public class JwtUtils {
-  private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
+  static final String ID_CLAIM = "id";
+  static final String EMAIL_CLAIM = "email";
+  static final String ROLES_CLAIM = "roles";
+  static final String TOKEN_VERSION_CLAIM = "tv";
 
   @Value("${cooking.app.jwtSecret}")
   private String jwtSecret;
@@ -29,6 +33,13 @@ public class JwtUtils {
   @Value("${cooking.app.jwtCookieName}")
   private String jwtCookie;
 
+  private Key key;
+
+  @PostConstruct
+  void init() {
+    key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+  }
+
   public String getJwtFromCookies(HttpServletRequest request) {
     Cookie cookie = WebUtils.getCookie(request, jwtCookie);
     if (cookie != null) {
@@ -39,7 +50,7 @@ public class JwtUtils {
   }
 
   public ResponseCookie generateJwtCookie(UserDetailsImpl userPrincipal) {
-    String jwt = generateTokenFromUsername(userPrincipal.getUsername());
+    String jwt = generateTokenFromUsername(userPrincipal);
     ResponseCookie cookie = ResponseCookie.from(jwtCookie, jwt).path("/api").maxAge(24 * 60 * 60).httpOnly(true).build();
     return cookie;
   }
@@ -49,35 +60,18 @@ public class JwtUtils {
     return cookie;
   }
 
-  public String getUserNameFromJwtToken(String token) {
-    return Jwts.parserBuilder().setSigningKey(key()).build()
-               .parseClaimsJws(token).getBody().getSubject();
-  }
-
-  private Key key() {
-    return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
-  }
-
-  public boolean validateJwtToken(String authToken) {
-    try {
-      Jwts.parserBuilder().setSigningKey(key()).build().parse(authToken);
-      return true;
-    } catch (MalformedJwtException e) {
-      logger.error("Invalid JWT token: {}", e.getMessage());
-    } catch (ExpiredJwtException e) {
-      logger.error("JWT token is expired: {}", e.getMessage());
-    } catch (UnsupportedJwtException e) {
-      logger.error("JWT token is unsupported: {}", e.getMessage());
-    } catch (IllegalArgumentException e) {
-      logger.error("JWT claims string is empty: {}", e.getMessage());
-    }
-
-    return false;
+  Key key() {
+    return key;
   }
 
-  public String generateTokenFromUsername(String username) {   
+  public String generateTokenFromUsername(UserDetailsImpl userPrincipal) {
+    List<String> roles = userPrincipal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
     return Jwts.builder()
-               .setSubject(username)
+               .setSubject(userPrincipal.getUsername())
+               .claim(ID_CLAIM, userPrincipal.getId())
+               .claim(EMAIL_CLAIM, userPrincipal.getEmail())
+               .claim(ROLES_CLAIM, roles)
+               .claim(TOKEN_VERSION_CLAIM, userPrincipal.getTokenVersion())
                .setIssuedAt(new Date())
                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
                .signWith(key(), SignatureAlgorithm.HS256)
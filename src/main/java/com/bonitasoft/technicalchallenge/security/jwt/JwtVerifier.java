@@ -0,0 +1,127 @@
+package com.bonitasoft.technicalchallenge.security.jwt;
+
+import com.bonitasoft.technicalchallenge.security.services.RoleAuthorities;
+import com.bonitasoft.technicalchallenge.security.services.UserDetailsImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies JWTs and extracts their principal in a single parse, with a parser built once. Tokens that verified are
+ * remembered by SHA-256 digest until they expire, so a client sending the same cookie again costs a hash and a
+ * lookup instead of an HMAC and a JSON parse. Revocation is not cached: callers check TokenRevocations every time.
+ */
+@Component
+public class JwtVerifier {
+  private static final Logger logger = LoggerFactory.getLogger(JwtVerifier.class);
+
+  @Autowired
+  JwtUtils jwtUtils;
+
+  @Value("${cooking.app.jwtCacheSize:10000}")
+  long cacheSize;
+
+  private JwtParser parser;
+  private Cache<String, VerifiedToken> verified;
+
+  @PostConstruct
+  void init() {
+    parser = Jwts.parserBuilder().setSigningKey(jwtUtils.key()).build();
+    verified = Caffeine.newBuilder()
+        .maximumSize(cacheSize)
+        .expireAfter(new Expiry<String, VerifiedToken>() {
+          @Override
+          public long expireAfterCreate(String digest, VerifiedToken token, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, token.expiresAt().toEpochMilli() - System.currentTimeMillis()));
+          }
+
+          @Override
+          public long expireAfterUpdate(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+
+          @Override
+          public long expireAfterRead(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .build();
+  }
+
+  /**
+   * The principal carried by the token, or empty when its signature or expiry is invalid, or when it predates the
+   * principal claims.
+   */
+  public Optional<UserDetailsImpl> verify(String token) {
+    String digest = digest(token);
+    VerifiedToken cached = verified.getIfPresent(digest);
+    if (cached != null) {
+      return Optional.of(cached.principal());
+    }
+
+    Claims claims;
+    try {
+      claims = parser.parseClaimsJws(token).getBody();
+    } catch (ExpiredJwtException e) {
+      logger.error("JWT token is expired: {}", e.getMessage());
+      return Optional.empty();
+    } catch (JwtException | IllegalArgumentException e) {
+      logger.error("Invalid JWT token: {}", e.getMessage());
+      return Optional.empty();
+    }
+
+    UserDetailsImpl principal = principal(claims);
+    Date expiration = claims.getExpiration();
+    if (principal != null && expiration != null) {
+      verified.put(digest, new VerifiedToken(principal, expiration.toInstant()));
+    }
+    return Optional.ofNullable(principal);
+  }
+
+  private static UserDetailsImpl principal(Claims claims) {
+    Long id = claims.get(JwtUtils.ID_CLAIM, Long.class);
+    List<?> roles = claims.get(JwtUtils.ROLES_CLAIM, List.class);
+    Long tokenVersion = claims.get(JwtUtils.TOKEN_VERSION_CLAIM, Long.class);
+    if (id == null || roles == null || tokenVersion == null) {
+      return null;
+    }
+    List<GrantedAuthority> authorities = roles.stream()
+        .map(role -> RoleAuthorities.of(role.toString()))
+        .toList();
+    return new UserDetailsImpl(id, claims.getSubject(), claims.get(JwtUtils.EMAIL_CLAIM, String.class), null, authorities, tokenVersion);
+  }
+
+  private static String digest(String token) {
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+      return Base64.getEncoder().withoutPadding().encodeToString(hash);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  private record VerifiedToken(UserDetailsImpl principal, Instant expiresAt) {
+  }
+}
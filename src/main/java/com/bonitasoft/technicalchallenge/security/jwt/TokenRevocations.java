@@ -0,0 +1,61 @@
+package com.bonitasoft.technicalchallenge.security.jwt;
+
+import com.bonitasoft.technicalchallenge.repository.DeletedUserRepository;
+import com.bonitasoft.technicalchallenge.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lowest token version still accepted per user, so JWTs can be trusted without loading their user. Only users whose
+ * tokens were revoked have an entry: seeded at startup from {@code users.token_version}, and from the
+ * {@code deleted_user} rows recent enough for their tokens to be still valid, then kept up to date by AdminResource in
+ * the same process.
+ */
+@Component
+public class TokenRevocations {
+  @Autowired
+  UserRepository userRepository;
+
+  @Autowired
+  DeletedUserRepository deletedUserRepository;
+
+  @Value("${cooking.app.jwtExpirationMs}")
+  long jwtExpirationMs;
+
+  private final Map<Long, Long> minimumVersions = new ConcurrentHashMap<>();
+
+  @PostConstruct
+  void load() {
+    userRepository.findRevokedTokenVersions()
+        .forEach(user -> minimumVersions.merge(user.getId(), user.getTokenVersion(), Math::max));
+    LocalDateTime oldestValidToken = LocalDateTime.now().minusNanos(jwtExpirationMs * 1_000_000);
+    deletedUserRepository.deleteDeletedBefore(oldestValidToken);
+    deletedUserRepository.findUserIdsDeletedAfter(oldestValidToken).forEach(this::revokeAll);
+  }
+
+  /**
+   * Rejects every token of the user issued with a version lower than {@code currentVersion}.
+   */
+  public void revoke(long userId, long currentVersion) {
+    minimumVersions.merge(userId, currentVersion, Math::max);
+  }
+
+  /**
+   * Rejects every token of the user, for deleted users. Only lasts for this process: persisting the deletion, see
+   * RecipeChangeService.deleteUser, is what keeps it across restarts.
+   */
+  public void revokeAll(long userId) {
+    minimumVersions.put(userId, Long.MAX_VALUE);
+  }
+
+  public boolean isRevoked(long userId, long tokenVersion) {
+    Long minimumVersion = minimumVersions.get(userId);
+    return minimumVersion != null && tokenVersion < minimumVersion;
+  }
+}
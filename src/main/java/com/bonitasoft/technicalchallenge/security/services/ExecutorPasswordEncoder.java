@@ -0,0 +1,33 @@
+package com.bonitasoft.technicalchallenge.security.services;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Delegates hashing and verification to {@link PasswordHashExecutor} instead of the calling request thread.
+ */
+public class ExecutorPasswordEncoder implements PasswordEncoder {
+  private final PasswordEncoder delegate;
+
+  private final PasswordHashExecutor executor;
+
+  public ExecutorPasswordEncoder(PasswordEncoder delegate, PasswordHashExecutor executor) {
+    this.delegate = delegate;
+    this.executor = executor;
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return executor.execute(() -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return executor.execute(() -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  // Only parses the stored hash, cheap enough for the calling thread.
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+}
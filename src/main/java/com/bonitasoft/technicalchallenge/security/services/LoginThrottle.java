@@ -0,0 +1,93 @@
+package com.bonitasoft.technicalchallenge.security.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token buckets limiting sign-in attempts per username and per client address, checked before the user lookup and
+ * the password hash. Buckets live in bounded caches and are dropped once idle long enough to have refilled, which
+ * loses nothing since a new bucket starts full.
+ */
+@Component
+public class LoginThrottle {
+  @Value("${cooking.app.login.throttle.maximumSize:100000}")
+  long maximumSize;
+
+  @Value("${cooking.app.login.throttle.username.capacity:5}")
+  int usernameCapacity;
+
+  @Value("${cooking.app.login.throttle.username.refillPeriod:30s}")
+  Duration usernameRefillPeriod;
+
+  @Value("${cooking.app.login.throttle.address.capacity:20}")
+  int addressCapacity;
+
+  @Value("${cooking.app.login.throttle.address.refillPeriod:2s}")
+  Duration addressRefillPeriod;
+
+  Ticker ticker = Ticker.systemTicker();
+
+  private Cache<String, TokenBucket> usernames;
+  private Cache<String, TokenBucket> addresses;
+
+  @PostConstruct
+  void init() {
+    usernames = buckets(usernameCapacity, usernameRefillPeriod);
+    addresses = buckets(addressCapacity, addressRefillPeriod);
+  }
+
+  /**
+   * Takes a token from both the address and the username bucket.
+   *
+   * @return 0 when the attempt may proceed, otherwise the number of seconds before the next one will be allowed
+   */
+  public long tryAcquire(String username, String address) {
+    long now = ticker.read();
+    long wait = addresses.get(address, key -> new TokenBucket(addressCapacity, addressRefillPeriod, now)).tryAcquire(now);
+    if (wait == 0 && username != null) {
+      wait = usernames.get(username, key -> new TokenBucket(usernameCapacity, usernameRefillPeriod, now)).tryAcquire(now);
+    }
+    return wait == 0 ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+  }
+
+  private Cache<String, TokenBucket> buckets(int capacity, Duration refillPeriod) {
+    return Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterAccess(refillPeriod.multipliedBy(capacity))
+        .ticker(ticker)
+        .build();
+  }
+
+  // Tokens are counted in nanoseconds of refill time, which keeps the arithmetic exact.
+  static final class TokenBucket {
+    private final long refillNanos;
+    private final long capacityNanos;
+    private long available;
+    private long refilledAt;
+
+    TokenBucket(int capacity, Duration refillPeriod, long now) {
+      this.refillNanos = refillPeriod.toNanos();
+      this.capacityNanos = refillNanos * capacity;
+      this.available = capacityNanos;
+      this.refilledAt = now;
+    }
+
+    // Nanoseconds until a token is available, 0 if one was taken.
+    synchronized long tryAcquire(long now) {
+      available = Math.min(capacityNanos, available + Math.max(0, now - refilledAt));
+      refilledAt = Math.max(refilledAt, now);
+      if (available >= refillNanos) {
+        available -= refillNanos;
+        return 0;
+      }
+      return refillNanos - available;
+    }
+  }
+}
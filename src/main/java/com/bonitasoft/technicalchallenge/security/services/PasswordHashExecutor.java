@@ -0,0 +1,111 @@
+package com.bonitasoft.technicalchallenge.security.services;
+
+import com.bonitasoft.technicalchallenge.payload.response.PasswordHashingStatsResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on a small dedicated pool with a bounded queue, so a burst of sign-ins costs at most
+ * {@code threads} cores and never holds every request thread. Work that does not fit in the queue is refused at once
+ * with {@link PasswordHashingRejectedException}.
+ */
+@Component
+public class PasswordHashExecutor {
+  @Value("${cooking.app.password.threads:0}")
+  int threads;
+
+  @Value("${cooking.app.password.queueCapacity:64}")
+  int queueCapacity;
+
+  private ThreadPoolExecutor executor;
+
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder hashNanos = new LongAdder();
+  private final LongAdder waitNanos = new LongAdder();
+  private final LongAccumulator maxHashNanos = new LongAccumulator(Math::max, 0);
+
+  @PostConstruct
+  void start() {
+    int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    AtomicInteger sequence = new AtomicInteger();
+    executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        task -> {
+          Thread thread = new Thread(task, "password-hash-" + sequence.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  @PreDestroy
+  void stop() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Runs {@code hash} on the pool and waits for its result.
+   *
+   * @throws PasswordHashingRejectedException when the pool and its queue are full
+   */
+  public <T> T execute(Supplier<T> hash) {
+    long submitted = System.nanoTime();
+    Future<T> result;
+    try {
+      result = executor.submit(() -> {
+        long started = System.nanoTime();
+        waitNanos.add(started - submitted);
+        try {
+          return hash.get();
+        } finally {
+          long elapsed = System.nanoTime() - started;
+          hashNanos.add(elapsed);
+          maxHashNanos.accumulate(elapsed);
+          completed.increment();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw new PasswordHashingRejectedException();
+    }
+
+    try {
+      return result.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException(e.getCause());
+    } catch (InterruptedException e) {
+      result.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+    }
+  }
+
+  public PasswordHashingStatsResponse stats() {
+    long count = completed.sum();
+    return new PasswordHashingStatsResponse(executor.getMaximumPoolSize(), executor.getActiveCount(),
+        executor.getQueue().size(), queueCapacity, count, rejected.sum(),
+        count == 0 ? 0 : millis(hashNanos.sum()) / count, millis(maxHashNanos.get()),
+        count == 0 ? 0 : millis(waitNanos.sum()) / count);
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+}
@@ -0,0 +1,7 @@
+package com.bonitasoft.technicalchallenge.security.services;
+
+public class PasswordHashingRejectedException extends RuntimeException {
+  public PasswordHashingRejectedException() {
+    super("Password hashing queue is full");
+  }
+}
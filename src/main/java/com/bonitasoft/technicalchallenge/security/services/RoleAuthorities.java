@@ -0,0 +1,39 @@
+package com.bonitasoft.technicalchallenge.security.services;
+
+import com.bonitasoft.technicalchallenge.model.ERole;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One shared {@link GrantedAuthority} per {@link ERole}, instead of a new one for every principal built.
+ */
+public final class RoleAuthorities {
+  public static final GrantedAuthority USER = new SimpleGrantedAuthority(ERole.ROLE_USER.name());
+  public static final GrantedAuthority CHEF = new SimpleGrantedAuthority(ERole.ROLE_CHEF.name());
+  public static final GrantedAuthority ADMIN = new SimpleGrantedAuthority(ERole.ROLE_ADMIN.name());
+
+  private static final Map<ERole, GrantedAuthority> BY_ROLE = new EnumMap<>(Map.of(
+      ERole.ROLE_USER, USER,
+      ERole.ROLE_CHEF, CHEF,
+      ERole.ROLE_ADMIN, ADMIN));
+
+  private RoleAuthorities() {
+  }
+
+  public static GrantedAuthority of(ERole role) {
+    return BY_ROLE.get(role);
+  }
+
+  // Role names read back from token claims; anything unknown still gets its own authority.
+  public static GrantedAuthority of(String name) {
+    for (ERole role : ERole.values()) {
+      if (role.name().equals(name)) {
+        return BY_ROLE.get(role);
+      }
+    }
+    return new SimpleGrantedAuthority(name);
+  }
+}
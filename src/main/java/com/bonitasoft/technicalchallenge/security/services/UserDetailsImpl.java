@@ -3,7 +3,6 @@ package com.bonitasoft.technicalchallenge.security.services;
 import com.bonitasoft.technicalchallenge.model.User;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
@@ -25,18 +24,27 @@ public class UserDetailsImpl implements UserDetails {
 
   private Collection<? extends GrantedAuthority> authorities;
 
+  @JsonIgnore
+  private long tokenVersion;
+
   public UserDetailsImpl(Long id, String username, String email, String password,
       Collection<? extends GrantedAuthority> authorities) {
+    this(id, username, email, password, authorities, 0);
+  }
+
+  public UserDetailsImpl(Long id, String username, String email, String password,
+      Collection<? extends GrantedAuthority> authorities, long tokenVersion) {
     this.id = id;
     this.username = username;
     this.email = email;
     this.password = password;
     this.authorities = authorities;
+    this.tokenVersion = tokenVersion;
   }
 
   public static UserDetailsImpl build(User user) {
     List<GrantedAuthority> authorities = user.getRoles().stream()
-        .map(role -> new SimpleGrantedAuthority(role.getName().name()))
+        .map(role -> RoleAuthorities.of(role.getName()))
         .collect(Collectors.toList());
 
     return new UserDetailsImpl(
@@ -44,7 +52,8 @@ public class UserDetailsImpl implements UserDetails {
         user.getUsername(), 
         user.getEmail(),
         user.getPassword(), 
-        authorities);
+        authorities,
+        user.getTokenVersion());
   }
 
   @Override
@@ -60,6 +69,10 @@ public class UserDetailsImpl implements UserDetails {
     return email;
   }
 
+  public long getTokenVersion() {
+    return tokenVersion;
+  }
+
   @Override
   public String getPassword() {
     return password;
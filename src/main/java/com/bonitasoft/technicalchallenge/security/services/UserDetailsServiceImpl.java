@@ -1,27 +1,80 @@
 package com.bonitasoft.technicalchallenge.security.services;
 
 
-import com.bonitasoft.technicalchallenge.model.User;
 import com.bonitasoft.technicalchallenge.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+
+/**
+ * Loads users by username, keeping the built {@link UserDetailsImpl} in a bounded cache so repeated sign-ins skip the
+ * user and roles queries. Entries must be evicted with {@link #evict(long)} whenever a user's name, password or roles
+ * change, or the user is deleted.
+ */
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
   @Autowired
   UserRepository userRepository;
 
+  @Autowired
+  PlatformTransactionManager transactionManager;
+
+  @Value("${cooking.app.cache.users.maximumSize:10000}")
+  long maximumSize;
+
+  @Value("${cooking.app.cache.users.ttl:10m}")
+  Duration ttl;
+
+  private Cache<String, UserDetailsImpl> cache;
+  private TransactionTemplate readOnlyTransaction;
+
+  @PostConstruct
+  void init() {
+    cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(ttl)
+        .build();
+    readOnlyTransaction = new TransactionTemplate(transactionManager);
+    readOnlyTransaction.setReadOnly(true);
+  }
+
   @Override
-  @Transactional
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-    User user = userRepository.findByUsername(username)
-        .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
+    // Unknown usernames are not cached: the exception propagates out of the loader.
+    return cache.get(username, this::load);
+  }
 
-    return UserDetailsImpl.build(user);
+  @Override
+  @Transactional
+  public UserDetails updatePassword(UserDetails user, String newPassword) {
+    userRepository.updatePassword(user.getUsername(), newPassword);
+    UserDetailsImpl details = (UserDetailsImpl) user;
+    UserDetailsImpl updated = new UserDetailsImpl(details.getId(), details.getUsername(), details.getEmail(), newPassword,
+        details.getAuthorities(), details.getTokenVersion());
+    cache.put(updated.getUsername(), updated);
+    return updated;
   }
 
+  public void evict(long userId) {
+    cache.asMap().values().removeIf(user -> user.getId() == userId);
+  }
+
+  // Roles are lazy, so they are read inside the transaction.
+  private UserDetailsImpl load(String username) {
+    return readOnlyTransaction.execute(status -> userRepository.findByUsername(username)
+        .map(UserDetailsImpl::build)
+        .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username)));
+  }
 }
@@ -0,0 +1,205 @@
+package com.bonitasoft.technicalchallenge.services.bulk;
+
+import com.bonitasoft.technicalchallenge.model.Recipe;
+import com.bonitasoft.technicalchallenge.model.User;
+import com.bonitasoft.technicalchallenge.payload.request.recipe.CreateRecipeRequest;
+import com.bonitasoft.technicalchallenge.payload.response.ImportResponse;
+import com.bonitasoft.technicalchallenge.payload.response.ImportRowError;
+import com.bonitasoft.technicalchallenge.services.search.RecipeSearchService;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports recipes for one chef from a JSON array or NDJSON upload. Rows are parsed and validated one at a time and
+ * inserted in JDBC batches of {@code batchSize}, one transaction per batch; an invalid row is reported and skipped
+ * without failing the rows around it.
+ */
+@Service
+public class RecipeImportService {
+    private static final Logger logger = LoggerFactory.getLogger(RecipeImportService.class);
+    // The counts cover every row, only the first errors are detailed.
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    Validator validator;
+
+    @Autowired
+    RecipeSearchService recipeSearchService;
+
+    @Value("${cooking.app.import.batchSize:50}")
+    int batchSize;
+
+    private record Row(long number, CreateRecipeRequest request) {
+    }
+
+    public ImportResponse importJsonArray(long authorId, InputStream inputStream) throws IOException {
+        Run run = new Run(authorId);
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                run.reject(0, "Error: a JSON array of recipes is expected");
+                return run.finish();
+            }
+            long number = 0;
+            while (true) {
+                JsonNode node;
+                try {
+                    JsonToken token = parser.nextToken();
+                    if (token == JsonToken.END_ARRAY || token == null) {
+                        break;
+                    }
+                    number++;
+                    node = objectMapper.readTree(parser);
+                } catch (JsonProcessingException e) {
+                    // The parser cannot resynchronize inside a malformed array: keep what was read so far.
+                    run.reject(number, "Error: malformed JSON, import stopped");
+                    break;
+                }
+                run.accept(number, node);
+            }
+        }
+        return run.finish();
+    }
+
+    public ImportResponse importNdjson(long authorId, InputStream inputStream) throws IOException {
+        Run run = new Run(authorId);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            long number = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                number++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(line);
+                } catch (JsonProcessingException e) {
+                    run.reject(number, "Error: malformed JSON");
+                    continue;
+                }
+                run.accept(number, node);
+            }
+        }
+        return run.finish();
+    }
+
+    private class Run {
+        private final long authorId;
+        private final List<Row> batch = new ArrayList<>(batchSize);
+        private final ImportResponse response = new ImportResponse();
+
+        Run(long authorId) {
+            this.authorId = authorId;
+        }
+
+        void accept(long number, JsonNode node) {
+            CreateRecipeRequest request;
+            try {
+                request = objectMapper.treeToValue(node, CreateRecipeRequest.class);
+            } catch (JsonProcessingException e) {
+                reject(number, "Error: not a recipe");
+                return;
+            }
+            Set<ConstraintViolation<CreateRecipeRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                reject(number, "Error: " + violations.stream()
+                        .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                        .collect(Collectors.joining(", ")));
+                return;
+            }
+            batch.add(new Row(number, request));
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long number, String message) {
+            response.setFailed(response.getFailed() + 1);
+            if (response.getErrors().size() < MAX_REPORTED_ERRORS) {
+                response.getErrors().add(new ImportRowError(number, message));
+            }
+        }
+
+        ImportResponse finish() {
+            flush();
+            return response;
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                saved(insert(batch));
+            } catch (RuntimeException e) {
+                // A failing row fails its whole batch: replay it row by row to find out which one it was.
+                logger.warn("Recipe import batch failed, retrying its {} rows one by one", batch.size(), e);
+                for (Row row : batch) {
+                    try {
+                        saved(insert(List.of(row)));
+                    } catch (RuntimeException rowFailure) {
+                        reject(row.number(), "Error: recipe could not be saved");
+                    }
+                }
+            }
+            batch.clear();
+        }
+
+        private List<Recipe> insert(List<Row> rows) {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            return transaction.execute(status -> {
+                User author = entityManager.getReference(User.class, authorId);
+                List<Recipe> recipes = new ArrayList<>(rows.size());
+                for (Row row : rows) {
+                    CreateRecipeRequest request = row.request();
+                    Recipe recipe = new Recipe(request.getTitle(), request.getIngredients(), author, request.getKeywords());
+                    entityManager.persist(recipe);
+                    recipes.add(recipe);
+                }
+                // Sends the batch now and keeps the persistence context from growing with the upload.
+                entityManager.flush();
+                entityManager.clear();
+                return recipes;
+            });
+        }
+
+        private void saved(List<Recipe> recipes) {
+            recipes.forEach(recipeSearchService::indexRecipe);
+            response.setImported(response.getImported() + recipes.size());
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.bonitasoft.technicalchallenge.services.cache;
+
+/**
+ * A recipe detail response serialized once: the JSON bytes and, for large enough payloads, their gzip encoding.
+ */
+public record CachedRecipe(long id, long version, byte[] json, byte[] gzip) {
+
+    public boolean hasGzip() {
+        return gzip != null;
+    }
+
+    int weight() {
+        return json.length + (gzip == null ? 0 : gzip.length);
+    }
+}
@@ -0,0 +1,125 @@
+package com.bonitasoft.technicalchallenge.services.cache;
+
+import com.bonitasoft.technicalchallenge.model.Recipe;
+import com.bonitasoft.technicalchallenge.payload.response.CacheStatsResponse;
+import com.bonitasoft.technicalchallenge.repository.CommentRepository;
+import com.bonitasoft.technicalchallenge.repository.RecipeRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Read-through cache of serialized recipe detail responses, bounded in bytes and entry age. A recipe is loaded and
+ * serialized once per version, and served from the cached bytes until {@link #invalidate(long)} is called after a
+ * write to the recipe or its comments commits.
+ */
+@Service
+public class RecipeCache {
+    private static final int LATEST_COMMENTS = 5;
+    // Smaller payloads barely shrink, keeping a gzip copy of them is not worth the memory.
+    private static final int MIN_GZIP_SIZE = 1024;
+
+    @Autowired
+    RecipeRepository recipeRepository;
+
+    @Autowired
+    CommentRepository commentRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${cooking.app.cache.recipes.maximumBytes:64MB}")
+    DataSize maximumBytes;
+
+    @Value("${cooking.app.cache.recipes.ttl:10m}")
+    Duration ttl;
+
+    private Cache<Long, CachedRecipe> cache;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes.toBytes())
+                .weigher((Long id, CachedRecipe recipe) -> recipe.weight())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    public Optional<CachedRecipe> get(long id) {
+        // Misses are not cached: a recipe created afterwards must be visible right away.
+        return Optional.ofNullable(cache.get(id, this::load));
+    }
+
+    /**
+     * Current version of a recipe, from the cache when it holds the recipe, otherwise from a single-column lookup.
+     */
+    public Optional<Long> version(long id) {
+        CachedRecipe cached = cache.getIfPresent(id);
+        return cached != null ? Optional.of(cached.version()) : recipeRepository.findVersionById(id);
+    }
+
+    public void invalidate(long id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStatsResponse stats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsResponse(cache.estimatedSize(), stats.hitCount(), stats.missCount(), stats.hitRate(),
+                stats.evictionCount());
+    }
+
+    // Serialized inside the transaction so the lazy parts of the graph are still reachable.
+    private CachedRecipe load(long id) {
+        return readOnlyTransaction.execute(status -> recipeRepository.findDetailedById(id)
+                .map(this::serialize)
+                .orElse(null));
+    }
+
+    private CachedRecipe serialize(Recipe recipe) {
+        recipe.setLatestComments(commentRepository.findLatest(recipe.getId(), PageRequest.of(0, LATEST_COMMENTS)));
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(recipe);
+            return new CachedRecipe(recipe.getId(), recipe.getVersion(), json, json.length < MIN_GZIP_SIZE ? null : gzip(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Error: serializing recipe " + recipe.getId(), e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,380 @@
+package com.bonitasoft.technicalchallenge.services.comments;
+
+import com.bonitasoft.technicalchallenge.payload.response.CommentResponse;
+import com.bonitasoft.technicalchallenge.repository.CommentRepository;
+import com.bonitasoft.technicalchallenge.repository.projection.CommentSummary;
+import com.bonitasoft.technicalchallenge.utils.CursorCodec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans new comments out to the Server-Sent Events subscribers of their recipe. Subscribers are async requests
+ * parked by the servlet container, so an idle one costs an emitter and a socket but no thread. Each event is
+ * serialized once on the hub's thread and queued to every subscriber; the blocking socket writes happen on a small
+ * sender pool, one subscriber at a time, so a slow client only delays itself. A subscriber whose queue overflows, or
+ * whose write has been stuck for longer than {@code sendTimeout}, is dropped and will reconnect.
+ * A blocked write cannot be interrupted: it ends when the container's write timeout ({@code server.tomcat.connection-timeout})
+ * fails it. Until then the pool runs one extra thread in place of the stuck one, so stalled clients never starve the others.
+ * Event ids are comment positions, so a reconnecting client sending {@code Last-Event-ID} gets what it missed.
+ */
+@Service
+public class CommentStreamHub {
+    private static final Logger logger = LoggerFactory.getLogger(CommentStreamHub.class);
+    private static final String EVENT_NAME = "comment";
+    private static final int MAX_REPLAYED_COMMENTS = 100;
+
+    @Autowired
+    CommentRepository commentRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${cooking.app.comments.stream.timeout:30m}")
+    Duration timeout;
+
+    @Value("${cooking.app.comments.stream.heartbeat:30s}")
+    Duration heartbeat;
+
+    @Value("${cooking.app.comments.stream.queueCapacity:256}")
+    int queueCapacity;
+
+    @Value("${cooking.app.comments.stream.sendTimeout:10s}")
+    Duration sendTimeout;
+
+    @Value("${cooking.app.comments.stream.senderThreads:4}")
+    int senderThreads;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private ScheduledExecutorService dispatcher;
+    private ThreadPoolExecutor senders;
+    // Sender threads blocked in the write of a dropped subscriber, each replaced by an extra thread; guarded by senders.
+    private int stuckSenders;
+
+    private record CommentEvent(long commentId, SseEmitter.SseEventBuilder event) {
+    }
+
+    @PostConstruct
+    void start() {
+        dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "comment-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger sequence = new AtomicInteger();
+        senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "comment-stream-sender-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // Also how dead and stalled connections are found.
+        dispatcher.scheduleWithFixedDelay(this::sendHeartbeat, heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+        subscribers.values().forEach(recipeSubscribers -> recipeSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+    }
+
+    public SseEmitter subscribe(long recipeId, String lastEventId) {
+        Subscriber subscriber = new Subscriber(recipeId, newEmitter(timeout.toMillis()), lastEventId != null);
+        subscriber.emitter.onCompletion(() -> subscriber.close(null));
+        subscriber.emitter.onTimeout(() -> subscriber.close(null));
+        subscriber.emitter.onError(error -> subscriber.close(null));
+        subscribers.compute(recipeId, (id, recipeSubscribers) -> {
+            Set<Subscriber> updated = recipeSubscribers != null ? recipeSubscribers : ConcurrentHashMap.newKeySet();
+            updated.add(subscriber);
+            return updated;
+        });
+        // Subscribed before replaying so that a comment saved in between is not lost; the subscriber holds live events
+        // back until the replay is queued, so none overtakes an older one.
+        if (lastEventId != null) {
+            List<CommentEvent> missed = List.of();
+            try {
+                missed = missed(recipeId, lastEventId);
+            } finally {
+                subscriber.replayed(missed);
+            }
+        }
+        return subscriber.emitter;
+    }
+
+    /**
+     * Sends comments that were just committed to the subscribers of their recipes, asynchronously: the list is read
+     * later on the hub's thread and must not change after this call.
+     */
+    public void publish(List<CommentResponse> comments) {
+        dispatcher.execute(() -> comments.forEach(this::send));
+    }
+
+    public int subscriberCount(long recipeId) {
+        Set<Subscriber> recipeSubscribers = subscribers.get(recipeId);
+        return recipeSubscribers == null ? 0 : recipeSubscribers.size();
+    }
+
+    protected SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.recipeId, (id, recipeSubscribers) -> {
+            recipeSubscribers.remove(subscriber);
+            return recipeSubscribers.isEmpty() ? null : recipeSubscribers;
+        });
+    }
+
+    private void send(CommentResponse comment) {
+        Set<Subscriber> recipeSubscribers = subscribers.get(comment.getRecipeId());
+        if (recipeSubscribers == null) {
+            return;
+        }
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(comment);
+        } catch (JsonProcessingException e) {
+            logger.error("Error serializing comment {}", comment.getId(), e);
+            return;
+        }
+        SseEmitter.SseEventBuilder event = SseEmitter.event().id(eventId(comment)).name(EVENT_NAME).data(data);
+        for (Subscriber subscriber : recipeSubscribers) {
+            subscriber.deliver(new CommentEvent(comment.getId(), event));
+        }
+    }
+
+    private List<CommentEvent> missed(long recipeId, String lastEventId) {
+        long[] position;
+        LocalDateTime timestamp;
+        try {
+            position = CursorCodec.decode(lastEventId, 3);
+            timestamp = LocalDateTime.ofEpochSecond(position[0], (int) position[1], ZoneOffset.UTC);
+        } catch (RuntimeException e) {
+            // Not an id we issued: nothing sensible to resume from.
+            return List.of();
+        }
+        List<CommentEvent> events = new ArrayList<>();
+        for (CommentSummary comment : commentRepository.findAfter(recipeId, timestamp, position[2],
+                PageRequest.of(0, MAX_REPLAYED_COMMENTS))) {
+            CommentResponse response = new CommentResponse(comment.getId(), recipeId, comment.getAuthorId(),
+                    comment.getText(), comment.getTimestamp());
+            try {
+                events.add(new CommentEvent(comment.getId(), SseEmitter.event().id(eventId(response)).name(EVENT_NAME)
+                        .data(objectMapper.writeValueAsString(response))));
+            } catch (JsonProcessingException e) {
+                logger.error("Error serializing comment {}", comment.getId(), e);
+            }
+        }
+        return events;
+    }
+
+    // Grows the pool while a thread is stuck in a write and shrinks it back once the write returns.
+    private void resizeSenders(int stuckDelta) {
+        synchronized (senders) {
+            stuckSenders += stuckDelta;
+            int size = senderThreads + stuckSenders;
+            if (stuckDelta > 0) {
+                senders.setMaximumPoolSize(size);
+                senders.setCorePoolSize(size);
+            } else {
+                senders.setCorePoolSize(size);
+                senders.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    private void sendHeartbeat() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(recipeSubscribers -> {
+            for (Subscriber subscriber : recipeSubscribers) {
+                if (subscriber.writeOffIfStalled(now)) {
+                    subscriber.drop(new IOException("Send timed out"));
+                } else if (subscriber.outbound.isEmpty()) {
+                    // Only idle connections need keeping alive, a busy one is already exchanging events.
+                    subscriber.enqueue(SseEmitter.event().comment("heartbeat"));
+                }
+            }
+        });
+    }
+
+    static String eventId(CommentResponse comment) {
+        return CursorCodec.encode(comment.getTimestamp().toEpochSecond(ZoneOffset.UTC), comment.getTimestamp().getNano(), comment.getId());
+    }
+
+    /**
+     * An emitter with its bounded queue of events to send, drained by at most one sender thread at a time. The
+     * emitter is only ever completed from that drain: its methods share a lock that a blocked send holds.
+     * While a Last-Event-ID replay is being read, live events are held back rather than queued.
+     */
+    private final class Subscriber {
+        private final long recipeId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> outbound;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean open = new AtomicBoolean(true);
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private volatile Throwable failure;
+        // Guarded by this.
+        private List<CommentEvent> held;
+        // Guarded by sendLock.
+        private boolean sending;
+        private long sendStartedAt;
+        private boolean writtenOff;
+        private final Object sendLock = new Object();
+
+        Subscriber(long recipeId, SseEmitter emitter, boolean replaying) {
+            this.recipeId = recipeId;
+            this.emitter = emitter;
+            this.outbound = new ArrayBlockingQueue<>(queueCapacity);
+            this.held = replaying ? new ArrayList<>() : null;
+        }
+
+        synchronized void deliver(CommentEvent event) {
+            if (held == null) {
+                enqueue(event.event());
+            } else if (held.size() < queueCapacity) {
+                held.add(event);
+            } else {
+                drop(new IOException("Outbound queue full"));
+            }
+        }
+
+        // Queues the replay, then the live events held meanwhile that it did not already contain.
+        synchronized void replayed(List<CommentEvent> missed) {
+            Set<Long> replayedIds = new HashSet<>();
+            for (CommentEvent event : missed) {
+                replayedIds.add(event.commentId());
+                enqueue(event.event());
+            }
+            for (CommentEvent event : held) {
+                if (!replayedIds.contains(event.commentId())) {
+                    enqueue(event.event());
+                }
+            }
+            held = null;
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            if (!open.get()) {
+                return;
+            }
+            if (!outbound.offer(event)) {
+                drop(new IOException("Outbound queue full"));
+                return;
+            }
+            scheduleDrain();
+        }
+
+        // Hands the stuck sender thread over to the container's write timeout, see resizeSenders.
+        boolean writeOffIfStalled(long now) {
+            synchronized (sendLock) {
+                if (!sending || writtenOff || now - sendStartedAt <= sendTimeout.toNanos()) {
+                    return false;
+                }
+                writtenOff = true;
+            }
+            resizeSenders(1);
+            return true;
+        }
+
+        void drop(Throwable cause) {
+            if (close(cause)) {
+                scheduleDrain();
+            }
+        }
+
+        // Also called back by the emitter itself once completed, timed out or failed, with nothing left to complete.
+        boolean close(Throwable cause) {
+            if (!open.compareAndSet(true, false)) {
+                return false;
+            }
+            failure = cause;
+            outbound.clear();
+            unsubscribe(this);
+            return true;
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while (open.get() && (event = outbound.poll()) != null) {
+                    synchronized (sendLock) {
+                        sendStartedAt = System.nanoTime();
+                        sending = true;
+                    }
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        close(e);
+                    } finally {
+                        sendDone();
+                    }
+                }
+                if (!open.get()) {
+                    complete();
+                }
+                draining.set(false);
+                // Work that arrived after the checks above but before the flag was cleared found the drain running.
+            } while (hasWork() && draining.compareAndSet(false, true));
+        }
+
+        private void sendDone() {
+            boolean wasWrittenOff;
+            synchronized (sendLock) {
+                sending = false;
+                wasWrittenOff = writtenOff;
+                writtenOff = false;
+            }
+            if (wasWrittenOff) {
+                resizeSenders(-1);
+            }
+        }
+
+        private boolean hasWork() {
+            return open.get() ? !outbound.isEmpty() : failure != null && !completed.get();
+        }
+
+        private void complete() {
+            Throwable cause = failure;
+            if (cause != null && completed.compareAndSet(false, true)) {
+                emitter.completeWithError(cause);
+            }
+        }
+    }
+}
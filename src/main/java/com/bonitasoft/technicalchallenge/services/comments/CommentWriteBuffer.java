@@ -0,0 +1,207 @@
+package com.bonitasoft.technicalchallenge.services.comments;
+
+import com.bonitasoft.technicalchallenge.model.Comment;
+import com.bonitasoft.technicalchallenge.payload.response.CommentResponse;
+import com.bonitasoft.technicalchallenge.services.cache.RecipeCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind buffer for new comments. A comment gets its id from the comment sequence right away and is queued;
+ * a flusher thread inserts the queue in JDBC batches as soon as {@code batchSize} comments are waiting, or
+ * {@code flushInterval} after the oldest one arrived. When the queue is full new comments are refused rather
+ * than queued, and callers are expected to answer 503.
+ * Comments still queued are lost if the process dies, and appear in reads only once flushed.
+ */
+@Service
+public class CommentWriteBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(CommentWriteBuffer.class);
+    private static final String INSERT_COMMENT = "insert into comment (id, recipe_id, author_id, text, timestamp, updated_at) values (?, ?, ?, ?, ?, ?)";
+    private static final String BUMP_RECIPE_VERSION = "update recipe set version = version + 1, updated_at = ? where id = ?";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    RecipeCache recipeCache;
+
+    @Autowired
+    CommentStreamHub commentStreamHub;
+
+    @Value("${cooking.app.comments.bufferCapacity:10000}")
+    int capacity;
+
+    @Value("${cooking.app.comments.batchSize:100}")
+    int batchSize;
+
+    @Value("${cooking.app.comments.flushInterval:200ms}")
+    Duration flushInterval;
+
+    private BlockingQueue<CommentResponse> queue;
+    private String nextIdBlockQuery;
+    private long nextId;
+    private long lastId = -1;
+    private volatile boolean running;
+    private Thread flusher;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(capacity);
+        nextIdBlockQuery = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect()
+                .getSequenceSupport().getSequenceNextValString(Comment.ID_SEQUENCE);
+        running = true;
+        flusher = new Thread(this::run, "comment-write-buffer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        flush();
+    }
+
+    /**
+     * Queues a comment, or returns an empty result when the buffer is full.
+     */
+    public Optional<CommentResponse> submit(long recipeId, long authorId, String text) {
+        if (queue.remainingCapacity() == 0) {
+            return Optional.empty();
+        }
+        CommentResponse comment = new CommentResponse(allocateId(), recipeId, authorId, text, LocalDateTime.now());
+        return queue.offer(comment) ? Optional.of(comment) : Optional.empty();
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    // Same pooled scheme as Hibernate uses for Comment: each sequence value reserves the block of ids ending with it.
+    private synchronized long allocateId() {
+        while (nextId > lastId) {
+            long high = jdbcTemplate.queryForObject(nextIdBlockQuery, Long.class);
+            if (high >= Comment.ID_ALLOCATION_SIZE) {
+                lastId = high;
+                nextId = high - Comment.ID_ALLOCATION_SIZE + 1;
+            }
+        }
+        return nextId++;
+    }
+
+    private void run() {
+        List<CommentResponse> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                CommentResponse first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushInterval.toNanos();
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    CommentResponse next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            try {
+                write(batch);
+            } catch (RuntimeException e) {
+                logger.error("Dropping {} comments", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writes everything queued so far from the calling thread.
+     */
+    void flush() {
+        List<CommentResponse> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<CommentResponse> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            insert(batch);
+        } catch (DataAccessException e) {
+            // Typically a recipe deleted in the meantime: replay row by row so only its comments are dropped.
+            logger.warn("Comment batch of {} rows failed, retrying row by row", batch.size(), e);
+            for (CommentResponse comment : batch) {
+                try {
+                    insert(List.of(comment));
+                } catch (DataAccessException rowFailure) {
+                    logger.error("Dropping comment {} on recipe {}", comment.getId(), comment.getRecipeId(), rowFailure);
+                }
+            }
+        }
+    }
+
+    private void insert(List<CommentResponse> comments) {
+        Set<Long> recipeIds = new TreeSet<>();
+        comments.forEach(comment -> recipeIds.add(comment.getRecipeId()));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_COMMENT, comments, comments.size(), (statement, comment) -> {
+                statement.setLong(1, comment.getId());
+                statement.setLong(2, comment.getRecipeId());
+                statement.setLong(3, comment.getAuthorId());
+                statement.setString(4, comment.getText());
+                statement.setTimestamp(5, Timestamp.valueOf(comment.getTimestamp()));
+                statement.setTimestamp(6, Timestamp.valueOf(comment.getTimestamp()));
+            });
+            Timestamp updatedAt = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate(BUMP_RECIPE_VERSION, new ArrayList<>(recipeIds), recipeIds.size(), (statement, recipeId) -> {
+                statement.setTimestamp(1, updatedAt);
+                statement.setLong(2, recipeId);
+            });
+        });
+        recipeIds.forEach(recipeCache::invalidate);
+        // comments is the flusher's batch, cleared and refilled as soon as this returns.
+        commentStreamHub.publish(List.copyOf(comments));
+    }
+}
@@ -0,0 +1,205 @@
+package com.bonitasoft.technicalchallenge.services.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Writes the whole recipe catalog one row at a time. Rows come from a forward-only cursor read in batches of
+ * {@code fetchSize}; a transaction is required for the PostgreSQL driver to actually use a server-side cursor
+ * instead of buffering the whole result.
+ */
+@Service
+public class RecipeExportService {
+    // The comment count is a correlated subquery, answered per row from idx_comment_recipe_timestamp: grouping the
+    // whole comment table up front would hold back the first row until every comment was counted.
+    private static final String EXPORT_QUERY = "select r.id, r.title, r.ingredients, r.keywords, r.version, " +
+            "u.id as author_id, u.username as author_username, " +
+            "(select count(*) from comment c where c.recipe_id = r.id) as comment_count " +
+            "from recipe r left join users u on u.id = r.author_id " +
+            "order by r.id";
+    private static final String[] COLUMNS = {"id", "title", "ingredients", "keywords", "version", "author_id",
+            "author_username", "comment_count"};
+
+    public enum Format {
+        NDJSON(MediaType.APPLICATION_NDJSON_VALUE),
+        CSV("text/csv");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        public static Optional<Format> parse(String value) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return Optional.of(format);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Value("${cooking.app.export.fetchSize:500}")
+    int fetchSize;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public void export(Format format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+        rowWriter.start();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        try {
+            transaction.executeWithoutResult(status -> jdbcTemplate.query(this::prepareExport, new RowCallbackHandler() {
+                private int rows;
+
+                @Override
+                public void processRow(ResultSet resultSet) throws SQLException {
+                    try {
+                        rowWriter.write(resultSet);
+                        // Flushed once per fetched batch, so the client starts receiving data with the first one.
+                        if (++rows == 1 || rows % fetchSize == 0) {
+                            rowWriter.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        rowWriter.flush();
+    }
+
+    private PreparedStatement prepareExport(Connection connection) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(EXPORT_QUERY, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(fetchSize);
+        return statement;
+    }
+
+    private interface RowWriter {
+        void start() throws IOException;
+
+        void write(ResultSet resultSet) throws SQLException, IOException;
+
+        void flush() throws IOException;
+    }
+
+    private class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator json;
+
+        NdjsonRowWriter(Writer writer) throws IOException {
+            json = jsonFactory.createGenerator(writer);
+            json.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void write(ResultSet resultSet) throws SQLException, IOException {
+            json.writeStartObject();
+            json.writeNumberField("id", resultSet.getLong("id"));
+            json.writeStringField("title", resultSet.getString("title"));
+            json.writeStringField("ingredients", resultSet.getString("ingredients"));
+            json.writeStringField("keywords", resultSet.getString("keywords"));
+            json.writeNumberField("version", resultSet.getLong("version"));
+            long authorId = resultSet.getLong("author_id");
+            if (resultSet.wasNull()) {
+                json.writeNullField("authorId");
+            } else {
+                json.writeNumberField("authorId", authorId);
+            }
+            json.writeStringField("authorUsername", resultSet.getString("author_username"));
+            json.writeNumberField("commentCount", resultSet.getLong("comment_count"));
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            json.flush();
+        }
+    }
+
+    private static class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void start() throws IOException {
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet resultSet) throws SQLException, IOException {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                String value = resultSet.getString(COLUMNS[i]);
+                if (value != null) {
+                    writer.write(escape(value));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        // RFC 4180: fields holding a separator, a quote or a line break are quoted, quotes are doubled.
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.bonitasoft.technicalchallenge.services.popularity;
+
+import com.bonitasoft.technicalchallenge.payload.response.TrendingRecipeResponse;
+import com.bonitasoft.technicalchallenge.repository.RecipeRepository;
+import com.bonitasoft.technicalchallenge.repository.projection.RecipeSummary;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Counts recipe views without touching the database on the read path: a view increments a per-recipe
+ * {@link LongAdder}, and every {@code flushInterval} the accumulated deltas are added to {@code recipe.views} in one
+ * JDBC batch. The same deltas feed a sliding window of {@link SpaceSavingSketch} buckets, from which the trending
+ * list is rebuilt after each flush; {@link #trending(int)} only reads that prepared list.
+ * Views not flushed yet are lost if the process dies.
+ */
+@Service
+public class RecipeViewCounter {
+    private static final Logger logger = LoggerFactory.getLogger(RecipeViewCounter.class);
+    private static final String ADD_VIEWS = "update recipe set views = views + ? where id = ?";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    RecipeRepository recipeRepository;
+
+    @Value("${cooking.app.views.flushInterval:10s}")
+    Duration flushInterval;
+
+    @Value("${cooking.app.views.trending.window:1h}")
+    Duration window;
+
+    @Value("${cooking.app.views.trending.buckets:12}")
+    int bucketCount;
+
+    @Value("${cooking.app.views.trending.capacity:200}")
+    int capacity;
+
+    @Value("${cooking.app.views.trending.size:50}")
+    int trendingSize;
+
+    // Entries are never removed: dropping one could lose an increment racing with the removal, and there is at most
+    // one per recipe.
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    // Newest bucket first; only touched by the flushing thread.
+    private final Deque<SpaceSavingSketch> buckets = new ArrayDeque<>();
+    private long bucketStart;
+    private volatile List<TrendingRecipeResponse> trending = List.of();
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    void start() {
+        bucketStart = System.currentTimeMillis();
+        buckets.addFirst(new SpaceSavingSketch(capacity));
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "recipe-view-counter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        flush();
+    }
+
+    public void record(long recipeId) {
+        pending.computeIfAbsent(recipeId, id -> new LongAdder()).increment();
+    }
+
+    /**
+     * The most viewed recipes over the trending window, most viewed first, as of the last flush.
+     */
+    public List<TrendingRecipeResponse> trending(int size) {
+        List<TrendingRecipeResponse> snapshot = trending;
+        return snapshot.subList(0, Math.min(Math.max(size, 0), snapshot.size()));
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Error flushing recipe views", e);
+        }
+    }
+
+    /**
+     * Writes the views counted since the previous flush and refreshes the trending list, from the calling thread.
+     */
+    synchronized void flush() {
+        // Sorted so concurrent flushes of other instances lock rows in the same order.
+        Map<Long, Long> deltas = new TreeMap<>();
+        pending.forEach((recipeId, views) -> {
+            // sum then subtract rather than sumThenReset, which loses increments made while it runs.
+            long count = views.sum();
+            if (count != 0) {
+                views.add(-count);
+                deltas.put(recipeId, count);
+            }
+        });
+        boolean rotated = rotate(System.currentTimeMillis());
+        if (deltas.isEmpty() && !rotated) {
+            return;
+        }
+        deltas.forEach(buckets.peekFirst()::offer);
+        if (!deltas.isEmpty()) {
+            write(deltas);
+        }
+        trending = snapshot();
+    }
+
+    private void write(Map<Long, Long> deltas) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((recipeId, count) -> rows.add(new Object[]{count, recipeId}));
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> jdbcTemplate.batchUpdate(ADD_VIEWS, rows));
+        } catch (DataAccessException e) {
+            // Kept for the next flush; the trending window already has them.
+            logger.warn("Could not write views of {} recipes, retrying at next flush", deltas.size(), e);
+            deltas.forEach((recipeId, count) -> pending.computeIfAbsent(recipeId, id -> new LongAdder()).add(count));
+        }
+    }
+
+    private boolean rotate(long now) {
+        long bucketMillis = Math.max(1, window.toMillis() / bucketCount);
+        boolean rotated = false;
+        while (now - bucketStart >= bucketMillis) {
+            if (now - bucketStart >= window.toMillis()) {
+                // Idle for a whole window: nothing left to keep.
+                buckets.clear();
+                bucketStart = now;
+            } else {
+                bucketStart += bucketMillis;
+            }
+            buckets.addFirst(new SpaceSavingSketch(capacity));
+            while (buckets.size() > bucketCount) {
+                buckets.removeLast();
+            }
+            rotated = true;
+        }
+        return rotated;
+    }
+
+    private List<TrendingRecipeResponse> snapshot() {
+        Map<Long, Long> views = new HashMap<>();
+        for (SpaceSavingSketch bucket : buckets) {
+            bucket.counts().forEach((recipeId, count) -> views.merge(recipeId, count, Long::sum));
+        }
+        List<Map.Entry<Long, Long>> top = views.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(trendingSize)
+                .toList();
+        if (top.isEmpty()) {
+            return List.of();
+        }
+        // Deleted recipes simply do not come back.
+        Map<Long, RecipeSummary> summaries = recipeRepository.findSummariesByIdIn(top.stream().map(Map.Entry::getKey).toList())
+                .stream().collect(Collectors.toMap(RecipeSummary::getId, Function.identity()));
+        List<TrendingRecipeResponse> snapshot = new ArrayList<>(top.size());
+        for (Map.Entry<Long, Long> entry : top) {
+            RecipeSummary summary = summaries.get(entry.getKey());
+            if (summary != null) {
+                snapshot.add(new TrendingRecipeResponse(summary.getId(), summary.getTitle(), summary.getAuthorUsername(), entry.getValue()));
+            }
+        }
+        return List.copyOf(snapshot);
+    }
+}
@@ -0,0 +1,66 @@
+package com.bonitasoft.technicalchallenge.services.popularity;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving top-K sketch: keeps at most {@code capacity} counters, and a key seen for the first time when they
+ * are all taken replaces the smallest one, inheriting its count. Counts are therefore over-estimates by at most the
+ * count of the evicted key, and any key whose true count exceeds total / capacity is guaranteed to be tracked.
+ * Not thread-safe.
+ */
+public class SpaceSavingSketch {
+    private final int capacity;
+    private final Map<Long, Counter> counters = new HashMap<>();
+    private final TreeSet<Counter> byCount = new TreeSet<>(Comparator.<Counter>comparingLong(counter -> counter.count)
+            .thenComparingLong(counter -> counter.key));
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    public void offer(long key, long increment) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            byCount.remove(counter);
+        } else if (counters.size() < capacity) {
+            counter = new Counter(key, 0);
+            counters.put(key, counter);
+        } else {
+            Counter smallest = byCount.pollFirst();
+            counters.remove(smallest.key);
+            counter = new Counter(key, smallest.count);
+            counters.put(key, counter);
+        }
+        counter.count += increment;
+        byCount.add(counter);
+    }
+
+    /**
+     * Estimated count of every tracked key.
+     */
+    public Map<Long, Long> counts() {
+        Map<Long, Long> counts = new HashMap<>();
+        counters.forEach((key, counter) -> counts.put(key, counter.count));
+        return counts;
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    private static final class Counter {
+        private final long key;
+        private long count;
+
+        private Counter(long key, long count) {
+            this.key = key;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.bonitasoft.technicalchallenge.services.ratings;
+
+import com.bonitasoft.technicalchallenge.model.Rating;
+import com.bonitasoft.technicalchallenge.repository.RatingRepository;
+import com.bonitasoft.technicalchallenge.repository.RecipeRepository;
+import com.bonitasoft.technicalchallenge.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Records ratings and keeps the recipe's running sum, count and average in step within the same transaction, so
+ * reads never aggregate the rating table.
+ */
+@Service
+public class RatingService {
+    @Autowired
+    RatingRepository ratingRepository;
+
+    @Autowired
+    RecipeRepository recipeRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    /**
+     * Sets the user's score for the recipe, replacing the previous one if any. Empty when the recipe does not exist.
+     * Throws DataIntegrityViolationException when the same user rates the same recipe for the first time twice concurrently.
+     */
+    @Transactional
+    public Optional<Rating> rate(long recipeId, long userId, int score) {
+        if (!recipeRepository.existsById(recipeId)) {
+            return Optional.empty();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Optional<Rating> existing = ratingRepository.findForUpdate(recipeId, userId);
+        Rating rating;
+        if (existing.isPresent()) {
+            rating = existing.get();
+            recipeRepository.addRating(recipeId, score - rating.getScore(), 0, now);
+            rating.setScore(score);
+            rating.setTimestamp(now);
+        } else {
+            // Flushed right away so a duplicate surfaces here rather than at commit.
+            rating = ratingRepository.saveAndFlush(new Rating(recipeRepository.getReferenceById(recipeId),
+                    userRepository.getReferenceById(userId), score, now));
+            recipeRepository.addRating(recipeId, score, 1, now);
+        }
+        return Optional.of(rating);
+    }
+}
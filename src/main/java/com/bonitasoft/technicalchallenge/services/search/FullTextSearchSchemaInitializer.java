@@ -0,0 +1,32 @@
+package com.bonitasoft.technicalchallenge.services.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+// Adds the generated tsvector column and its GIN index once Hibernate has created the recipe table.
+@Component
+@ConditionalOnProperty(prefix = "cooking.app.search", name = "backend", havingValue = "postgres")
+public class FullTextSearchSchemaInitializer {
+    private static final Logger logger = LoggerFactory.getLogger(FullTextSearchSchemaInitializer.class);
+
+    @Autowired
+    DataSource dataSource;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void createSearchVector() {
+        new ResourceDatabasePopulator(new ClassPathResource("db/recipe-fulltext.sql")).execute(dataSource);
+        logger.info("PostgreSQL full-text search column and index are ready");
+    }
+}
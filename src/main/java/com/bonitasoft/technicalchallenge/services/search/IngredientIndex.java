@@ -0,0 +1,156 @@
+package com.bonitasoft.technicalchallenge.services.search;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ingredient -> recipes postings stored as compressed bitmaps, answering "what can I cook with this pantry".
+ * Recipes are also bucketed by their number of distinct ingredients so that coverage is checked with bitmap
+ * operations only: a recipe is covered up to d missing items when it matches m pantry items and has m + d ingredients.
+ */
+public class IngredientIndex {
+    private final Map<String, RoaringBitmap> recipesByIngredient = new HashMap<>();
+    private final List<RoaringBitmap> recipesByIngredientCount = new ArrayList<>();
+    private final Map<Integer, Set<String>> ingredientsByRecipe = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public record Match(long recipeId, Set<String> missing) {
+    }
+
+    public void index(long id, String ingredients) {
+        Set<String> names = IngredientNormalizer.parse(ingredients);
+        int docId = Math.toIntExact(id);
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(docId);
+            if (names.isEmpty()) {
+                return;
+            }
+            for (String name : names) {
+                recipesByIngredient.computeIfAbsent(name, key -> new RoaringBitmap()).add(docId);
+            }
+            while (recipesByIngredientCount.size() <= names.size()) {
+                recipesByIngredientCount.add(new RoaringBitmap());
+            }
+            recipesByIngredientCount.get(names.size()).add(docId);
+            ingredientsByRecipe.put(docId, names);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(Math.toIntExact(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            recipesByIngredient.clear();
+            recipesByIngredientCount.clear();
+            ingredientsByRecipe.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recipes that need at most {@code maxMissing} ingredients outside the pantry, fewest missing first.
+     */
+    public List<Match> cookable(Collection<String> pantry, int maxMissing, int limit) {
+        Set<String> pantryNames = new LinkedHashSet<>();
+        for (String item : pantry) {
+            String name = IngredientNormalizer.normalize(item);
+            if (!name.isEmpty()) {
+                pantryNames.add(name);
+            }
+        }
+        List<Match> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            List<RoaringBitmap> pantryBitmaps = new ArrayList<>();
+            for (String name : pantryNames) {
+                RoaringBitmap recipes = recipesByIngredient.get(name);
+                if (recipes != null) {
+                    pantryBitmaps.add(recipes);
+                }
+            }
+            if (pantryBitmaps.isEmpty()) {
+                return matches;
+            }
+
+            // matched[m]: recipes containing exactly m of the pantry ingredients, built one pantry bitmap at a time.
+            RoaringBitmap[] matched = new RoaringBitmap[pantryBitmaps.size() + 1];
+            matched[0] = RoaringBitmap.or(pantryBitmaps.toArray(new RoaringBitmap[0]));
+            for (int m = 1; m < matched.length; m++) {
+                matched[m] = new RoaringBitmap();
+            }
+            for (int j = 0; j < pantryBitmaps.size(); j++) {
+                RoaringBitmap ingredient = pantryBitmaps.get(j);
+                for (int m = j + 1; m >= 1; m--) {
+                    RoaringBitmap moved = RoaringBitmap.and(matched[m - 1], ingredient);
+                    if (!moved.isEmpty()) {
+                        matched[m - 1].andNot(ingredient);
+                        matched[m].or(moved);
+                    }
+                }
+            }
+
+            for (int missing = 0; missing <= maxMissing; missing++) {
+                for (int m = matched.length - 1; m >= 1; m--) {
+                    int ingredientCount = m + missing;
+                    if (ingredientCount >= recipesByIngredientCount.size()) {
+                        continue;
+                    }
+                    RoaringBitmap covered = RoaringBitmap.and(matched[m], recipesByIngredientCount.get(ingredientCount));
+                    for (int docId : covered) {
+                        if (matches.size() >= limit) {
+                            return matches;
+                        }
+                        matches.add(new Match(docId, missingFrom(docId, pantryNames)));
+                    }
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<String> missingFrom(int docId, Set<String> pantryNames) {
+        Set<String> missing = new LinkedHashSet<>(ingredientsByRecipe.get(docId));
+        missing.removeAll(pantryNames);
+        return missing;
+    }
+
+    private void removeUnlocked(int docId) {
+        Set<String> previous = ingredientsByRecipe.remove(docId);
+        if (previous == null) {
+            return;
+        }
+        for (String name : previous) {
+            RoaringBitmap recipes = recipesByIngredient.get(name);
+            if (recipes != null) {
+                recipes.remove(docId);
+                if (recipes.isEmpty()) {
+                    recipesByIngredient.remove(name);
+                }
+            }
+        }
+        recipesByIngredientCount.get(previous.size()).remove(docId);
+    }
+}
@@ -0,0 +1,62 @@
+package com.bonitasoft.technicalchallenge.services.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Turns the free-text ingredient list of a recipe into canonical ingredient names:
+ * "2 Eggs, 200g flour; 1 cup of whole milk" -> [egg, flour, whole milk].
+ */
+public final class IngredientNormalizer {
+    private static final Pattern ITEM_SEPARATORS = Pattern.compile("[,;\\n]+");
+    private static final Pattern QUANTITY = Pattern.compile("\\d+([.,/]\\d+)?[a-z]*");
+    private static final Set<String> NOISE = Set.of(
+            "g", "kg", "mg", "ml", "cl", "dl", "l", "oz", "lb", "lbs",
+            "cup", "cups", "tbsp", "tsp", "tablespoon", "tablespoons", "teaspoon", "teaspoons",
+            "pinch", "dash", "handful", "clove", "cloves", "slice", "slices", "piece", "pieces", "can", "cans",
+            "of", "a", "an", "the", "some", "few", "to", "taste", "and", "or",
+            "fresh", "large", "small", "medium", "chopped", "sliced", "diced", "minced", "grated");
+
+    private IngredientNormalizer() {
+    }
+
+    public static Set<String> parse(String ingredients) {
+        Set<String> names = new LinkedHashSet<>();
+        if (ingredients == null) {
+            return names;
+        }
+        for (String item : ITEM_SEPARATORS.split(ingredients)) {
+            String name = normalize(item);
+            if (!name.isEmpty()) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    public static String normalize(String item) {
+        List<String> words = new ArrayList<>();
+        for (String token : TextTokenizer.tokenize(item)) {
+            if (!NOISE.contains(token) && !QUANTITY.matcher(token).matches()) {
+                words.add(singular(token));
+            }
+        }
+        return String.join(" ", words);
+    }
+
+    private static String singular(String word) {
+        if (word.length() > 4 && word.endsWith("ies")) {
+            return word.substring(0, word.length() - 3) + "y";
+        }
+        if (word.length() > 4 && word.endsWith("oes")) {
+            return word.substring(0, word.length() - 2);
+        }
+        if (word.length() > 3 && word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us")) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+}
@@ -0,0 +1,186 @@
+package com.bonitasoft.technicalchallenge.services.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Term -> recipe postings over title, keywords and ingredients, ranked with BM25.
+ * Fields are folded into one weighted term frequency (title counts more than keywords, keywords more than ingredients).
+ */
+public class InvertedIndex {
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float KEYWORDS_WEIGHT = 2f;
+    private static final float INGREDIENTS_WEIGHT = 1f;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+    private final Map<Long, Map<String, Float>> documents = new HashMap<>();
+    private final Map<Long, Float> lengths = new HashMap<>();
+    private double totalLength;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void index(long id, String title, String keywords, String ingredients) {
+        Map<String, Float> frequencies = new HashMap<>();
+        addTerms(frequencies, title, TITLE_WEIGHT);
+        addTerms(frequencies, keywords, KEYWORDS_WEIGHT);
+        addTerms(frequencies, ingredients, INGREDIENTS_WEIGHT);
+        float length = 0;
+        for (float frequency : frequencies.values()) {
+            length += frequency;
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+            if (frequencies.isEmpty()) {
+                return;
+            }
+            for (Map.Entry<String, Float> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>()).put(id, entry.getValue());
+            }
+            documents.put(id, frequencies);
+            lengths.put(id, length);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            lengths.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the best {@code limit} recipes after skipping {@code offset}, best score first.
+     * With {@code matchAll} a recipe must contain every term, otherwise any of them.
+     */
+    public List<Long> search(List<String> terms, boolean matchAll, int offset, int limit) {
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Float>> termPostings = new ArrayList<>();
+            for (String term : terms.stream().distinct().toList()) {
+                Map<Long, Float> posting = postings.get(term);
+                if (posting == null) {
+                    if (matchAll) {
+                        return Collections.emptyList();
+                    }
+                    continue;
+                }
+                termPostings.add(posting);
+            }
+            if (termPostings.isEmpty()) {
+                return Collections.emptyList();
+            }
+            // Walking the rarest term first keeps AND candidates as small as possible.
+            termPostings.sort(Comparator.comparingInt(Map::size));
+
+            Map<Long, Double> scores = new HashMap<>();
+            double averageLength = totalLength / documents.size();
+            for (int i = 0; i < termPostings.size(); i++) {
+                Map<Long, Float> posting = termPostings.get(i);
+                double idf = Math.log(1 + (documents.size() - posting.size() + 0.5) / (posting.size() + 0.5));
+                if (matchAll && i > 0) {
+                    scores.keySet().retainAll(posting.keySet());
+                    for (Map.Entry<Long, Double> score : scores.entrySet()) {
+                        score.setValue(score.getValue() + bm25(idf, posting.get(score.getKey()), score.getKey(), averageLength));
+                    }
+                } else {
+                    for (Map.Entry<Long, Float> entry : posting.entrySet()) {
+                        scores.merge(entry.getKey(), bm25(idf, entry.getValue(), entry.getKey(), averageLength), Double::sum);
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+            return topK(scores, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private double bm25(double idf, float frequency, long id, double averageLength) {
+        double normalizedLength = 1 - B + B * lengths.get(id) / averageLength;
+        return idf * frequency * (K1 + 1) / (frequency + K1 * normalizedLength);
+    }
+
+    private static List<Long> topK(Map<Long, Double> scores, int offset, int limit) {
+        Comparator<Map.Entry<Long, Double>> byScore = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+        // Never more than the matches: the heap grows with them rather than being sized from the requested page.
+        int wanted = (int) Math.min((long) offset + limit, scores.size());
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(byScore);
+        for (Map.Entry<Long, Double> score : scores.entrySet()) {
+            heap.offer(score);
+            if (heap.size() > wanted) {
+                heap.poll();
+            }
+        }
+        List<Long> ranked = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            ranked.add(heap.poll().getKey());
+        }
+        Collections.reverse(ranked);
+        return offset >= ranked.size() ? Collections.emptyList() : ranked.subList(offset, ranked.size());
+    }
+
+    private void removeUnlocked(long id) {
+        Map<String, Float> previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.keySet()) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= lengths.remove(id);
+    }
+
+    private static void addTerms(Map<String, Float> frequencies, String text, float weight) {
+        for (String token : TextTokenizer.tokenize(text)) {
+            frequencies.merge(token, weight, Float::sum);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.bonitasoft.technicalchallenge.services.search;
+
+import com.bonitasoft.technicalchallenge.model.Recipe;
+import com.bonitasoft.technicalchallenge.payload.response.CookableRecipeResponse;
+import com.bonitasoft.technicalchallenge.payload.response.RecipeSearchResponse;
+import com.bonitasoft.technicalchallenge.repository.RecipeRepository;
+import com.bonitasoft.technicalchallenge.repository.projection.RecipeSummary;
+import com.bonitasoft.technicalchallenge.repository.projection.RecipeText;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+@Service
+public class RecipeSearchService {
+    private static final Logger logger = LoggerFactory.getLogger(RecipeSearchService.class);
+
+    static final String MEMORY_BACKEND = "memory";
+    static final String POSTGRES_BACKEND = "postgres";
+    private static final int MAX_SUGGESTIONS = 5;
+    // Deepest result reachable through paging, past it ranking every match costs more than anyone will read.
+    public static final int MAX_OFFSET = 10_000;
+
+    @Autowired
+    RecipeRepository recipeRepository;
+
+    // "memory" ranks with the in-process inverted index, "postgres" with the tsvector column and ts_rank.
+    @Value("${cooking.app.search.backend:memory}")
+    String backend;
+
+    private final InvertedIndex index = new InvertedIndex();
+    private final IngredientIndex ingredientIndex = new IngredientIndex();
+    private final SuggestionIndex suggestionIndex = new SuggestionIndex();
+    private final SpellingDictionary spellingDictionary = new SpellingDictionary();
+
+    @PostConstruct
+    void checkBackend() {
+        if (!isInMemory() && !POSTGRES_BACKEND.equalsIgnoreCase(backend)) {
+            throw new IllegalStateException("Unknown search backend: " + backend);
+        }
+        logger.info("Recipe search backend: {}", backend);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        index.clear();
+        ingredientIndex.clear();
+        suggestionIndex.clear();
+        spellingDictionary.clear();
+        int indexed = 0;
+        try (Stream<RecipeText> recipes = recipeRepository.streamAllTexts()) {
+            for (Iterator<RecipeText> iterator = recipes.iterator(); iterator.hasNext(); indexed++) {
+                RecipeText recipe = iterator.next();
+                indexText(recipe.getId(), recipe.getTitle(), recipe.getKeywords(), recipe.getIngredients());
+            }
+        }
+        logger.info("Indexed {} recipes in {} ms", indexed, System.currentTimeMillis() - start);
+    }
+
+    public void indexRecipe(Recipe recipe) {
+        indexText(recipe.getId(), recipe.getTitle(), recipe.getKeywords(), recipe.getIngredients());
+    }
+
+    public void removeRecipe(Long recipeId) {
+        if (isInMemory()) {
+            index.remove(recipeId);
+        }
+        ingredientIndex.remove(recipeId);
+        suggestionIndex.remove(recipeId);
+        spellingDictionary.remove(recipeId);
+    }
+
+    /**
+     * Throws IllegalArgumentException when the page starts past {@link #MAX_OFFSET}.
+     */
+    public List<RecipeSummary> search(String query, boolean matchAll, int page, int size) {
+        long offset = (long) page * size;
+        if (offset > MAX_OFFSET) {
+            throw new IllegalArgumentException("Offset " + offset + " is past " + MAX_OFFSET);
+        }
+        List<Long> ids = isInMemory()
+                ? index.search(TextTokenizer.tokenize(query), matchAll, (int) offset, size)
+                : recipeRepository.searchFullText(toWebSearchQuery(query, matchAll), size, (int) offset);
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            rank.put(ids.get(i), i);
+        }
+        return recipeRepository.findSummariesByIdIn(ids).stream()
+                .sorted(Comparator.comparing(summary -> rank.get(summary.getId())))
+                .toList();
+    }
+
+    /**
+     * Same as {@link #search} but a first page without results comes back with spelling corrections built from
+     * recipe titles and keywords, and with {@code autocorrect} the results of the best correction.
+     */
+    public RecipeSearchResponse searchWithSuggestions(String query, boolean matchAll, int page, int size, boolean autocorrect) {
+        List<RecipeSummary> results = search(query, matchAll, page, size);
+        if (!results.isEmpty() || page > 0) {
+            return new RecipeSearchResponse(results, Collections.emptyList(), null);
+        }
+        List<String> suggestions = correct(TextTokenizer.tokenize(query));
+        if (autocorrect && !suggestions.isEmpty()) {
+            String correctedQuery = suggestions.get(0);
+            return new RecipeSearchResponse(search(correctedQuery, matchAll, page, size), suggestions, correctedQuery);
+        }
+        return new RecipeSearchResponse(results, suggestions, null);
+    }
+
+    public List<CookableRecipeResponse> cookable(List<String> pantry, int maxMissing, int limit) {
+        List<IngredientIndex.Match> matches = ingredientIndex.cookable(pantry, maxMissing, limit);
+        if (matches.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, RecipeSummary> summaries = new HashMap<>();
+        for (RecipeSummary summary : recipeRepository.findSummariesByIdIn(matches.stream().map(IngredientIndex.Match::recipeId).toList())) {
+            summaries.put(summary.getId(), summary);
+        }
+        return matches.stream()
+                .filter(match -> summaries.containsKey(match.recipeId()))
+                .map(match -> new CookableRecipeResponse(summaries.get(match.recipeId()), match.missing()))
+                .toList();
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        return suggestionIndex.suggest(prefix, limit);
+    }
+
+    private void indexText(Long id, String title, String keywords, String ingredients) {
+        if (isInMemory()) {
+            index.index(id, title, keywords, ingredients);
+        }
+        ingredientIndex.index(id, ingredients);
+        suggestionIndex.index(id, title, keywords);
+        spellingDictionary.index(id, title, keywords);
+    }
+
+    // Best query first (every unknown term replaced by its best correction), then one alternative term at a time.
+    private List<String> correct(List<String> terms) {
+        List<String> best = new ArrayList<>(terms);
+        Map<Integer, List<String>> alternatives = new HashMap<>();
+        for (int i = 0; i < terms.size(); i++) {
+            if (spellingDictionary.contains(terms.get(i))) {
+                continue;
+            }
+            List<String> corrections = spellingDictionary.lookup(terms.get(i), MAX_SUGGESTIONS);
+            if (!corrections.isEmpty()) {
+                best.set(i, corrections.get(0));
+                alternatives.put(i, corrections.subList(1, corrections.size()));
+            }
+        }
+        if (best.equals(terms)) {
+            return Collections.emptyList();
+        }
+        Set<String> suggestions = new LinkedHashSet<>();
+        suggestions.add(String.join(" ", best));
+        alternatives.forEach((position, corrections) -> {
+            for (String correction : corrections) {
+                List<String> alternative = new ArrayList<>(best);
+                alternative.set(position, correction);
+                suggestions.add(String.join(" ", alternative));
+            }
+        });
+        return suggestions.stream().limit(MAX_SUGGESTIONS).toList();
+    }
+
+    private boolean isInMemory() {
+        return MEMORY_BACKEND.equalsIgnoreCase(backend);
+    }
+
+    // websearch_to_tsquery already ANDs plain words and understands quotes and "-"; OR needs explicit "or" between terms.
+    private static String toWebSearchQuery(String query, boolean matchAll) {
+        return matchAll ? query : String.join(" or ", TextTokenizer.tokenize(query));
+    }
+}
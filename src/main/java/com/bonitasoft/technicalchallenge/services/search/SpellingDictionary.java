@@ -0,0 +1,213 @@
+package com.bonitasoft.technicalchallenge.services.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Symmetric-delete spelling correction (SymSpell) over recipe title and keyword terms: every term is stored under all
+ * the strings obtained by deleting up to {@link #MAX_EDIT_DISTANCE} characters, so a lookup only generates the deletes
+ * of the misspelled term and probes a hash map, independently of the dictionary size.
+ * A term's frequency is the number of recipes using it.
+ */
+public class SpellingDictionary {
+    public static final int MAX_EDIT_DISTANCE = 2;
+    // Shorter words produce too many unrelated corrections.
+    private static final int MIN_TERM_LENGTH = 3;
+    // A term has O(length^2) deletes: longer input is not worth correcting and would make each lookup expensive.
+    public static final int MAX_TERM_LENGTH = 24;
+
+    private final Map<Long, Set<String>> termsByRecipe = new HashMap<>();
+    private final Map<String, Integer> frequencies = new HashMap<>();
+    private final Map<String, Set<String>> deletes = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private record Candidate(String term, int distance, int frequency) {
+    }
+
+    private static final Comparator<Candidate> BEST_FIRST = Comparator.comparingInt(Candidate::distance)
+            .thenComparing(Comparator.comparingInt(Candidate::frequency).reversed())
+            .thenComparing(Candidate::term);
+
+    public void index(long recipeId, String title, String keywords) {
+        Set<String> terms = new HashSet<>();
+        for (String term : TextTokenizer.tokenize(title)) {
+            if (isCorrectable(term)) {
+                terms.add(term);
+            }
+        }
+        for (String term : TextTokenizer.tokenize(keywords)) {
+            if (isCorrectable(term)) {
+                terms.add(term);
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            Set<String> previous = termsByRecipe.put(recipeId, terms);
+            if (previous != null) {
+                removeTerms(previous);
+            }
+            addTerms(terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long recipeId) {
+        lock.writeLock().lock();
+        try {
+            Set<String> previous = termsByRecipe.remove(recipeId);
+            if (previous != null) {
+                removeTerms(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            termsByRecipe.clear();
+            frequencies.clear();
+            deletes.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(String term) {
+        lock.readLock().lock();
+        try {
+            return frequencies.containsKey(term);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Known terms within {@link #MAX_EDIT_DISTANCE} of {@code term}, closest and most frequent first.
+     */
+    public List<String> lookup(String term, int limit) {
+        if (!isCorrectable(term)) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            Set<String> probes = deletesOf(term);
+            probes.add(term);
+            Set<String> seen = new HashSet<>();
+            List<Candidate> candidates = new ArrayList<>();
+            for (String probe : probes) {
+                if (frequencies.containsKey(probe)) {
+                    consider(term, probe, seen, candidates);
+                }
+                for (String known : deletes.getOrDefault(probe, Collections.emptySet())) {
+                    consider(term, known, seen, candidates);
+                }
+            }
+            candidates.sort(BEST_FIRST);
+            return candidates.stream().limit(limit).map(Candidate::term).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean isCorrectable(String term) {
+        return term.length() >= MIN_TERM_LENGTH && term.length() <= MAX_TERM_LENGTH;
+    }
+
+    private void addTerms(Collection<String> terms) {
+        for (String term : terms) {
+            if (frequencies.merge(term, 1, Integer::sum) == 1) {
+                for (String delete : deletesOf(term)) {
+                    deletes.computeIfAbsent(delete, key -> new HashSet<>()).add(term);
+                }
+            }
+        }
+    }
+
+    private void removeTerms(Collection<String> terms) {
+        for (String term : terms) {
+            Integer frequency = frequencies.get(term);
+            if (frequency == null) {
+                continue;
+            }
+            if (frequency > 1) {
+                frequencies.put(term, frequency - 1);
+                continue;
+            }
+            frequencies.remove(term);
+            for (String delete : deletesOf(term)) {
+                Set<String> bucket = deletes.get(delete);
+                if (bucket != null && bucket.remove(term) && bucket.isEmpty()) {
+                    deletes.remove(delete);
+                }
+            }
+        }
+    }
+
+    private void consider(String term, String known, Set<String> seen, List<Candidate> candidates) {
+        if (!seen.add(known)) {
+            return;
+        }
+        int distance = distance(term, known);
+        if (distance <= MAX_EDIT_DISTANCE) {
+            candidates.add(new Candidate(known, distance, frequencies.get(known)));
+        }
+    }
+
+    private static Set<String> deletesOf(String term) {
+        Set<String> result = new LinkedHashSet<>();
+        Set<String> frontier = Set.of(term);
+        for (int distance = 0; distance < MAX_EDIT_DISTANCE; distance++) {
+            Set<String> next = new LinkedHashSet<>();
+            for (String word : frontier) {
+                if (word.length() <= 1) {
+                    continue;
+                }
+                for (int i = 0; i < word.length(); i++) {
+                    String delete = word.substring(0, i) + word.substring(i + 1);
+                    if (result.add(delete)) {
+                        next.add(delete);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return result;
+    }
+
+    // Optimal string alignment distance: insertions, deletions, substitutions and adjacent transpositions.
+    public static int distance(String a, String b) {
+        if (Math.abs(a.length() - b.length()) > MAX_EDIT_DISTANCE) {
+            return MAX_EDIT_DISTANCE + 1;
+        }
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + cost);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}
@@ -0,0 +1,63 @@
+package com.bonitasoft.technicalchallenge.services.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Title and keyword completions for the suggest endpoint. A completion is weighted by the number of recipes
+ * using it, and each recipe's contribution is remembered so updates and deletes adjust the weights incrementally.
+ */
+public class SuggestionIndex {
+    private final SuggestionTrie trie = new SuggestionTrie();
+    private final Map<Long, Map<String, String>> entriesByRecipe = new HashMap<>();
+
+    public synchronized void index(long id, String title, String keywords) {
+        Map<String, String> entries = new LinkedHashMap<>();
+        addEntry(entries, title);
+        if (keywords != null) {
+            for (String keyword : keywords.split(",")) {
+                addEntry(entries, keyword);
+            }
+        }
+        Map<String, String> previous = entriesByRecipe.put(id, entries);
+        if (previous != null) {
+            previous.forEach((key, text) -> trie.adjust(key, text, -1));
+        }
+        entries.forEach((key, text) -> trie.adjust(key, text, 1));
+    }
+
+    public synchronized void remove(long id) {
+        Map<String, String> previous = entriesByRecipe.remove(id);
+        if (previous != null) {
+            previous.forEach((key, text) -> trie.adjust(key, text, -1));
+        }
+    }
+
+    public synchronized void clear() {
+        entriesByRecipe.clear();
+        trie.clear();
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        return key.isEmpty() ? Collections.emptyList() : new ArrayList<>(trie.complete(key, limit));
+    }
+
+    private static void addEntry(Map<String, String> entries, String text) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        String key = normalize(text);
+        if (!key.isEmpty()) {
+            entries.putIfAbsent(key, text.trim());
+        }
+    }
+
+    private static String normalize(String text) {
+        return String.join(" ", TextTokenizer.tokenize(text));
+    }
+}
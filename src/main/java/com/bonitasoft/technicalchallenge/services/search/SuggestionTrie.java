@@ -0,0 +1,136 @@
+package com.bonitasoft.technicalchallenge.services.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Weighted completions over normalized keys. Every node caches the best weight found below it, so the top-K
+ * completions of a prefix are found best-first without walking the whole subtree.
+ */
+public class SuggestionTrie {
+    private final Node root = new Node();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private static class Node {
+        private final Map<Character, Node> children = new TreeMap<>();
+        private String text;
+        private long weight;
+        private long maxWeight;
+    }
+
+    // A node is expanded once (its cached maxWeight) and emitted once (its own weight); ties go to the earliest queued.
+    private record Candidate(Node node, long priority, boolean emit, long sequence) {
+    }
+
+    private static final Comparator<Candidate> BEST_FIRST = Comparator.comparingLong(Candidate::priority).reversed()
+            .thenComparingLong(Candidate::sequence);
+
+    /**
+     * Adds {@code delta} to the weight of {@code key}, creating or dropping the completion as its weight crosses zero.
+     */
+    public void adjust(String key, String text, long delta) {
+        if (key.isEmpty() || delta == 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Deque<Node> path = new ArrayDeque<>();
+            Node node = root;
+            path.push(node);
+            for (int i = 0; i < key.length(); i++) {
+                Node child = node.children.get(key.charAt(i));
+                if (child == null) {
+                    if (delta < 0) {
+                        return;
+                    }
+                    child = new Node();
+                    node.children.put(key.charAt(i), child);
+                }
+                node = child;
+                path.push(node);
+            }
+
+            node.weight = Math.max(0, node.weight + delta);
+            if (node.weight == 0) {
+                node.text = null;
+            } else if (delta > 0 || node.text == null) {
+                node.text = text;
+            }
+
+            // Walk back to the root refreshing the cached maxima and pruning branches left without completions.
+            int depth = key.length();
+            Node child = null;
+            while (!path.isEmpty()) {
+                Node current = path.pop();
+                if (child != null && child.maxWeight == 0 && child.children.isEmpty()) {
+                    current.children.remove(key.charAt(depth));
+                }
+                long best = current.weight;
+                for (Node next : current.children.values()) {
+                    best = Math.max(best, next.maxWeight);
+                }
+                current.maxWeight = best;
+                child = current;
+                depth--;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<String> complete(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.children.get(prefix.charAt(i));
+            }
+            if (node == null || node.maxWeight == 0 || limit <= 0) {
+                return Collections.emptyList();
+            }
+
+            List<String> completions = new ArrayList<>(limit);
+            PriorityQueue<Candidate> queue = new PriorityQueue<>(BEST_FIRST);
+            long sequence = 0;
+            queue.add(new Candidate(node, node.maxWeight, false, sequence++));
+            while (!queue.isEmpty() && completions.size() < limit) {
+                Candidate candidate = queue.poll();
+                Node current = candidate.node();
+                if (candidate.emit()) {
+                    completions.add(current.text);
+                    continue;
+                }
+                if (current.weight > 0) {
+                    queue.add(new Candidate(current, current.weight, true, sequence++));
+                }
+                for (Node child : current.children.values()) {
+                    if (child.maxWeight > 0) {
+                        queue.add(new Candidate(child, child.maxWeight, false, sequence++));
+                    }
+                }
+            }
+            return completions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            root.children.clear();
+            root.maxWeight = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.bonitasoft.technicalchallenge.services.sync;
+
+import com.bonitasoft.technicalchallenge.model.DeletedUser;
+import com.bonitasoft.technicalchallenge.model.Recipe;
+import com.bonitasoft.technicalchallenge.model.Tombstone;
+import com.bonitasoft.technicalchallenge.payload.response.ChangesResponse;
+import com.bonitasoft.technicalchallenge.repository.DeletedUserRepository;
+import com.bonitasoft.technicalchallenge.repository.RatingRepository;
+import com.bonitasoft.technicalchallenge.repository.RecipeRepository;
+import com.bonitasoft.technicalchallenge.repository.TombstoneRepository;
+import com.bonitasoft.technicalchallenge.repository.UserRepository;
+import com.bonitasoft.technicalchallenge.repository.projection.RatingScore;
+import com.bonitasoft.technicalchallenge.repository.projection.RecipeChange;
+import com.bonitasoft.technicalchallenge.repository.projection.RecipeSummary;
+import com.bonitasoft.technicalchallenge.utils.CursorCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Change feed for offline clients: recipes created or modified and recipes deleted after a sync token, in
+ * (time, recipe id) order. The token is the position of the last change returned, so the cost of a sync depends on
+ * how much changed since, not on the catalog size.
+ * Changes younger than {@code settleTime} are held back: their timestamp is taken before their transaction commits,
+ * and skipping past them while it is still open would lose them for good.
+ */
+@Service
+public class RecipeChangeService {
+    private static final LocalDateTime ORIGIN = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC);
+
+    @Autowired
+    RecipeRepository recipeRepository;
+
+    @Autowired
+    TombstoneRepository tombstoneRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RatingRepository ratingRepository;
+
+    @Autowired
+    DeletedUserRepository deletedUserRepository;
+
+    @Value("${cooking.app.sync.settleTime:5s}")
+    Duration settleTime;
+
+    @Transactional
+    public void deleteRecipe(Recipe recipe) {
+        recipeRepository.delete(recipe);
+        tombstoneRepository.save(new Tombstone(recipe.getId(), LocalDateTime.now()));
+    }
+
+    /**
+     * Deletes the user along with their recipes, which the database removes by cascade, leaving tombstones for them,
+     * and records the deletion so their tokens stay revoked across restarts, see TokenRevocations.
+     * The user's ratings are withdrawn from the aggregates of the recipes they rated.
+     * Returns the ids of the deleted recipes, for the caller to drop from the in-memory indexes once committed.
+     */
+    @Transactional
+    public List<Long> deleteUser(long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> recipeIds = recipeRepository.findIdsByAuthor(userId);
+        for (RatingScore rating : ratingRepository.findScoresGivenToOthers(userId)) {
+            recipeRepository.addRating(rating.getRecipeId(), -rating.getScore(), -1, now);
+        }
+        ratingRepository.deleteByUserId(userId);
+        tombstoneRepository.insertForAuthor(userId, now);
+        userRepository.deleteById(userId);
+        deletedUserRepository.save(new DeletedUser(userId, now));
+        return recipeIds;
+    }
+
+    /**
+     * Up to {@code size} changes after the token, or from the beginning without one.
+     * Throws IllegalArgumentException when the token was not issued by this feed.
+     */
+    @Transactional(readOnly = true)
+    public ChangesResponse changesSince(String token, int size) {
+        LocalDateTime since = ORIGIN;
+        long sinceId = 0;
+        if (token != null) {
+            long[] position = CursorCodec.decode(token, 3);
+            try {
+                since = LocalDateTime.ofEpochSecond(position[0], (int) position[1], ZoneOffset.UTC);
+            } catch (DateTimeException e) {
+                throw new IllegalArgumentException("Malformed token: " + token, e);
+            }
+            sinceId = position[2];
+        }
+        LocalDateTime until = LocalDateTime.now().minus(settleTime);
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<RecipeChange> recipes = recipeRepository.findChangesAfter(since, sinceId, until, limit);
+        List<Tombstone> tombstones = tombstoneRepository.findAfter(since, sinceId, until, limit);
+
+        // Merge of both keyset pages; a recipe id is never both live and deleted, so positions never tie.
+        List<RecipeSummary> updated = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        int recipeIndex = 0;
+        int tombstoneIndex = 0;
+        while (updated.size() + deleted.size() < size && (recipeIndex < recipes.size() || tombstoneIndex < tombstones.size())) {
+            RecipeChange recipe = recipeIndex < recipes.size() ? recipes.get(recipeIndex) : null;
+            Tombstone tombstone = tombstoneIndex < tombstones.size() ? tombstones.get(tombstoneIndex) : null;
+            if (tombstone == null || recipe != null && isBefore(recipe.getUpdatedAt(), recipe.getId(), tombstone.getDeletedAt(), tombstone.getRecipeId())) {
+                updated.add(recipe);
+                since = recipe.getUpdatedAt();
+                sinceId = recipe.getId();
+                recipeIndex++;
+            } else {
+                deleted.add(tombstone.getRecipeId());
+                since = tombstone.getDeletedAt();
+                sinceId = tombstone.getRecipeId();
+                tombstoneIndex++;
+            }
+        }
+        boolean hasMore = recipeIndex < recipes.size() || tombstoneIndex < tombstones.size();
+        String next = CursorCodec.encode(since.toEpochSecond(ZoneOffset.UTC), since.getNano(), sinceId);
+        return new ChangesResponse(updated, deleted, next, hasMore);
+    }
+
+    private static boolean isBefore(LocalDateTime time, long id, LocalDateTime otherTime, long otherId) {
+        return time.isBefore(otherTime) || time.equals(otherTime) && id < otherId;
+    }
+}
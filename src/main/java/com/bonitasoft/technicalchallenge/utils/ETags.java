@@ -0,0 +1,67 @@
+package com.bonitasoft.technicalchallenge.utils;
+
+import com.bonitasoft.technicalchallenge.repository.projection.RecipeVersion;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Strong entity tags derived from recipe versions, so a conditional request can be answered without loading or
+ * serializing what it asks for.
+ */
+public final class ETags {
+    // 128 bits of the digest are plenty to tell two states of the same page apart.
+    private static final int PAGE_TAG_BYTES = 16;
+
+    private ETags() {
+    }
+
+    public static String recipe(long id, long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    /**
+     * Tag of a keyset page: changes whenever a recipe of the page changes, appears or disappears. {@code rows} are
+     * the same rows as the page itself, including the extra one telling whether there is a next page.
+     */
+    public static String page(long afterId, int size, List<RecipeVersion> rows) {
+        StringBuilder state = new StringBuilder().append(afterId).append('/').append(size);
+        for (RecipeVersion row : rows) {
+            state.append(',').append(row.getId()).append('-').append(row.getVersion());
+        }
+        byte[] digest = sha256(state.toString().getBytes(StandardCharsets.UTF_8));
+        return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, PAGE_TAG_BYTES)) + "\"";
+    }
+
+    // Weak comparison, as If-None-Match requires.
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+ALTER TABLE recipe ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(keywords, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(ingredients, '')), 'C')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_recipe_search_vector ON recipe USING GIN (search_vector);
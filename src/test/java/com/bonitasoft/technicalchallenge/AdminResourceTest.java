@@ -4,20 +4,34 @@ import com.bonitasoft.technicalchallenge.model.ERole;
 import com.bonitasoft.technicalchallenge.model.Role;
 import com.bonitasoft.technicalchallenge.model.User;
 import com.bonitasoft.technicalchallenge.payload.request.auth.SignupRequest;
+import com.bonitasoft.technicalchallenge.payload.response.CacheStatsResponse;
 import com.bonitasoft.technicalchallenge.payload.response.MessageResponse;
+import com.bonitasoft.technicalchallenge.payload.response.PasswordHashingStatsResponse;
 import com.bonitasoft.technicalchallenge.payload.response.UserInfoResponse;
+import com.bonitasoft.technicalchallenge.repository.RecipeRepository;
 import com.bonitasoft.technicalchallenge.repository.RoleRepository;
 import com.bonitasoft.technicalchallenge.repository.UserRepository;
 import com.bonitasoft.technicalchallenge.resource.AdminResource;
+import com.bonitasoft.technicalchallenge.security.jwt.TokenRevocations;
+import com.bonitasoft.technicalchallenge.security.services.PasswordHashExecutor;
+import com.bonitasoft.technicalchallenge.security.services.UserDetailsServiceImpl;
+import com.bonitasoft.technicalchallenge.services.cache.RecipeCache;
+import com.bonitasoft.technicalchallenge.services.export.RecipeExportService;
+import com.bonitasoft.technicalchallenge.services.search.RecipeSearchService;
+import com.bonitasoft.technicalchallenge.services.sync.RecipeChangeService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -33,9 +47,33 @@ class AdminResourceTest {
     @Mock
     private RoleRepository roleRepository;
 
+    @Mock
+    private RecipeRepository recipeRepository;
+
     @Mock
     private PasswordEncoder encoder;
 
+    @Mock
+    private RecipeCache recipeCache;
+
+    @Mock
+    private RecipeExportService recipeExportService;
+
+    @Mock
+    private RecipeChangeService recipeChangeService;
+
+    @Mock
+    private RecipeSearchService recipeSearchService;
+
+    @Mock
+    private TokenRevocations tokenRevocations;
+
+    @Mock
+    private PasswordHashExecutor passwordHashExecutor;
+
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+
     @InjectMocks
     private AdminResource adminResource;
 
@@ -70,6 +108,7 @@ class AdminResourceTest {
     @Test
     void testDeleteUser() {
         Long userId = 1L;
+        when(recipeChangeService.deleteUser(userId)).thenReturn(List.of(10L, 11L));
 
         ResponseEntity<?> responseEntity = adminResource.deleteUser(userId);
 
@@ -80,8 +119,14 @@ class AdminResourceTest {
 
         assertEquals(expectedResponse.getMessage(), actualResponse.getMessage());
 
-        verify(userRepository, times(1)).deleteById(userId);
-        verifyNoMoreInteractions(userRepository);
+        verify(recipeChangeService, times(1)).deleteUser(userId);
+        verifyNoMoreInteractions(recipeChangeService);
+        verify(tokenRevocations, times(1)).revokeAll(userId);
+        verify(userDetailsService, times(1)).evict(userId);
+        verify(recipeCache, times(1)).invalidateAll();
+        verify(recipeSearchService, times(1)).removeRecipe(10L);
+        verify(recipeSearchService, times(1)).removeRecipe(11L);
+        verifyNoMoreInteractions(recipeSearchService);
     }
 
     @Test
@@ -109,12 +154,17 @@ class AdminResourceTest {
         assertEquals("newUsername", existingUser.getUsername());
         assertEquals("newEmail@example.com", existingUser.getEmail());
         assertEquals("encodedPassword", existingUser.getPassword());
+        assertEquals(1, existingUser.getTokenVersion());
 
         verify(userRepository, times(1)).findById(userId);
         verify(userRepository, times(1)).save(existingUser);
         verifyNoMoreInteractions(userRepository);
         verify(encoder, times(1)).encode(updateUserRequest.getPassword());
         verifyNoMoreInteractions(encoder);
+        verify(tokenRevocations, times(1)).revoke(userId, 1L);
+        verify(userDetailsService, times(1)).evict(userId);
+        verify(recipeRepository, times(1)).bumpVersionsByUser(eq(userId), any(LocalDateTime.class));
+        verify(recipeCache, times(1)).invalidateAll();
     }
 
     @Test
@@ -138,12 +188,15 @@ class AdminResourceTest {
         assertEquals(expectedResponse.getMessage(), actualResponse.getMessage());
 
         assertEquals(Collections.singleton(newRole), user.getRoles());
+        verify(tokenRevocations, times(1)).revoke(userId, 1L);
+        verify(userDetailsService, times(1)).evict(userId);
 
         verify(userRepository, times(1)).findById(userId);
         verify(userRepository, times(1)).save(user);
         verifyNoMoreInteractions(userRepository);
         verify(roleRepository, times(1)).findByName(ERole.valueOf(role));
         verifyNoMoreInteractions(roleRepository);
+        verify(recipeRepository, times(1)).bumpVersionsByUser(eq(userId), any(LocalDateTime.class));
     }
 
     @Test
@@ -168,11 +221,58 @@ class AdminResourceTest {
         assertEquals(expectedResponse.getMessage(), actualResponse.getMessage());
 
         assertEquals(Collections.emptySet(), user.getRoles());
+        verify(tokenRevocations, times(1)).revoke(userId, 1L);
+        verify(userDetailsService, times(1)).evict(userId);
 
         verify(userRepository, times(1)).findById(userId);
         verify(userRepository, times(1)).save(user);
         verifyNoMoreInteractions(userRepository);
         verify(roleRepository, times(1)).findByName(ERole.valueOf(role));
         verifyNoMoreInteractions(roleRepository);
+        verify(recipeRepository, times(1)).bumpVersionsByUser(eq(userId), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testGetRecipeCacheStats() {
+        CacheStatsResponse stats = new CacheStatsResponse(2, 8, 2, 0.8, 0);
+        when(recipeCache.stats()).thenReturn(stats);
+
+        ResponseEntity<?> responseEntity = adminResource.getRecipeCacheStats();
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(stats, responseEntity.getBody());
+    }
+
+    @Test
+    void testGetPasswordHashingStats() {
+        PasswordHashingStatsResponse stats = new PasswordHashingStatsResponse(2, 1, 3, 64, 10, 1, 80.5, 120.0, 4.2);
+        when(passwordHashExecutor.stats()).thenReturn(stats);
+
+        ResponseEntity<?> responseEntity = adminResource.getPasswordHashingStats();
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(stats, responseEntity.getBody());
+    }
+
+    @Test
+    void testExportRecipes() throws Exception {
+        ResponseEntity<?> responseEntity = adminResource.exportRecipes("CSV");
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals("text/csv", responseEntity.getHeaders().getContentType().toString());
+        assertEquals("attachment; filename=\"recipes.csv\"", responseEntity.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+        verifyNoInteractions(recipeExportService);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ((StreamingResponseBody) responseEntity.getBody()).writeTo(outputStream);
+        verify(recipeExportService, times(1)).export(RecipeExportService.Format.CSV, outputStream);
+    }
+
+    @Test
+    void testExportRecipesWithUnknownFormat() {
+        ResponseEntity<?> responseEntity = adminResource.exportRecipes("xml");
+
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        verifyNoInteractions(recipeExportService);
     }
 }
@@ -12,6 +12,7 @@ import com.bonitasoft.technicalchallenge.repository.UserRepository;
 import com.bonitasoft.technicalchallenge.resource.AuthResource;
 import com.bonitasoft.technicalchallenge.security.jwt.JwtUtils;
 import com.bonitasoft.technicalchallenge.security.services.EmailService;
+import com.bonitasoft.technicalchallenge.security.services.LoginThrottle;
 import com.bonitasoft.technicalchallenge.security.services.UserDetailsImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,6 +24,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -56,6 +58,9 @@ class AuthResourceTest {
     @Mock
     private EmailService emailService;
 
+    @Mock
+    private LoginThrottle loginThrottle;
+
     @InjectMocks
     private AuthResource authResource;
 
@@ -84,7 +89,7 @@ class AuthResourceTest {
         when(authentication.getPrincipal()).thenReturn(userDetails);
         when(jwtUtils.generateJwtCookie(userDetails)).thenReturn(jwtCookie);
 
-        ResponseEntity<?> responseEntity = authResource.authenticateUser(loginRequest);
+        ResponseEntity<?> responseEntity = authResource.authenticateUser(loginRequest, new MockHttpServletRequest());
 
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertEquals(userDetails.getId(), ((UserInfoResponse) responseEntity.getBody()).getId());
@@ -98,6 +103,20 @@ class AuthResourceTest {
         verifyNoMoreInteractions(authenticationManager, jwtUtils);
     }
 
+    @Test
+    void testAuthenticateUser_Throttled() {
+        LoginRequest loginRequest = new LoginRequest("john", "password");
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+        when(loginThrottle.tryAcquire("john", "10.0.0.1")).thenReturn(30L);
+
+        ResponseEntity<?> responseEntity = authResource.authenticateUser(loginRequest, request);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, responseEntity.getStatusCode());
+        assertEquals("30", responseEntity.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        verifyNoInteractions(authenticationManager, userRepository, encoder, jwtUtils);
+    }
+
     @Test
     void testRegisterUser_UsernameTaken() {
         SignupRequest signUpRequest = new SignupRequest("john", "john@example.com", "password");
@@ -0,0 +1,251 @@
+package com.bonitasoft.technicalchallenge;
+
+import com.bonitasoft.technicalchallenge.payload.response.CommentResponse;
+import com.bonitasoft.technicalchallenge.repository.CommentRepository;
+import com.bonitasoft.technicalchallenge.repository.projection.CommentSummary;
+import com.bonitasoft.technicalchallenge.services.comments.CommentStreamHub;
+import com.bonitasoft.technicalchallenge.utils.CursorCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class CommentStreamHubTest {
+    private CommentRepository commentRepository;
+    private final Deque<SseEmitter> emitters = new ArrayDeque<>();
+    private CommentStreamHub hub;
+
+    @BeforeEach
+    void setUp() {
+        commentRepository = mock(CommentRepository.class);
+        hub = new CommentStreamHub() {
+            @Override
+            protected SseEmitter newEmitter(long timeoutMillis) {
+                return emitters.isEmpty() ? super.newEmitter(timeoutMillis) : emitters.poll();
+            }
+        };
+        ReflectionTestUtils.setField(hub, "commentRepository", commentRepository);
+        ReflectionTestUtils.setField(hub, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(hub, "timeout", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(hub, "heartbeat", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(hub, "queueCapacity", 2);
+        ReflectionTestUtils.setField(hub, "sendTimeout", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(hub, "senderThreads", 2);
+        ReflectionTestUtils.invokeMethod(hub, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(hub, "stop");
+    }
+
+    @Test
+    void testSubscribersAreTrackedPerRecipe() {
+        hub.subscribe(1L, null);
+        hub.subscribe(1L, null);
+        hub.subscribe(2L, null);
+
+        assertEquals(2, hub.subscriberCount(1L));
+        assertEquals(1, hub.subscriberCount(2L));
+        assertEquals(0, hub.subscriberCount(3L));
+        verifyNoInteractions(commentRepository);
+    }
+
+    @Test
+    void testReplaysCommentsAfterLastEventId() {
+        LocalDateTime timestamp = LocalDateTime.of(2023, 6, 1, 12, 0, 30, 500);
+
+        hub.subscribe(1L, CursorCodec.encode(timestamp.toEpochSecond(ZoneOffset.UTC), 500, 8L));
+
+        verify(commentRepository, times(1)).findAfter(eq(1L), eq(timestamp), eq(8L), any(Pageable.class));
+    }
+
+    @Test
+    void testIgnoresUnknownLastEventId() {
+        hub.subscribe(1L, "not-a-cursor");
+
+        verifyNoInteractions(commentRepository);
+        assertEquals(1, hub.subscriberCount(1L));
+    }
+
+    @Test
+    void testSlowSubscriberDoesNotDelayOthers() throws Exception {
+        RecordingEmitter slow = new RecordingEmitter(new CountDownLatch(1));
+        RecordingEmitter fast = new RecordingEmitter(new CountDownLatch(0));
+        emitters.add(slow);
+        emitters.add(fast);
+        hub.subscribe(1L, null);
+        hub.subscribe(1L, null);
+
+        hub.publish(List.of(comment(1L)));
+
+        assertTrue(fast.sent.await(5, TimeUnit.SECONDS));
+        assertEquals(0, slow.sentCount.get());
+        slow.release.countDown();
+        assertTrue(slow.sent.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testSubscriberIsDroppedWhenItsQueueOverflows() throws Exception {
+        RecordingEmitter slow = new RecordingEmitter(new CountDownLatch(1));
+        emitters.add(slow);
+        hub.subscribe(1L, null);
+
+        // One comment blocked in the send, two queued, the fourth overflows the queue of 2.
+        hub.publish(List.of(comment(1L)));
+        assertTrue(slow.sending.await(5, TimeUnit.SECONDS));
+        hub.publish(List.of(comment(2L), comment(3L), comment(4L)));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (hub.subscriberCount(1L) > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, hub.subscriberCount(1L));
+        slow.release.countDown();
+        assertTrue(slow.failed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, slow.sentCount.get());
+    }
+
+    @Test
+    void testStuckSendersAreReplaced() throws Exception {
+        ReflectionTestUtils.invokeMethod(hub, "stop");
+        ReflectionTestUtils.setField(hub, "heartbeat", Duration.ofMillis(20));
+        ReflectionTestUtils.setField(hub, "sendTimeout", Duration.ofMillis(50));
+        ReflectionTestUtils.invokeMethod(hub, "start");
+        RecordingEmitter stuck1 = new RecordingEmitter(new CountDownLatch(1));
+        RecordingEmitter stuck2 = new RecordingEmitter(new CountDownLatch(1));
+        RecordingEmitter other = new RecordingEmitter(new CountDownLatch(0));
+        emitters.add(stuck1);
+        emitters.add(stuck2);
+        emitters.add(other);
+        hub.subscribe(1L, null);
+        hub.subscribe(1L, null);
+        hub.subscribe(2L, null);
+
+        // Both sender threads end up blocked writing to recipe 1's subscribers.
+        hub.publish(List.of(comment(1L)));
+        assertTrue(stuck1.sending.await(5, TimeUnit.SECONDS));
+        assertTrue(stuck2.sending.await(5, TimeUnit.SECONDS));
+        hub.publish(List.of(comment(2L, 2L)));
+
+        assertTrue(other.sent.await(5, TimeUnit.SECONDS));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (hub.subscriberCount(1L) > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, hub.subscriberCount(1L));
+        stuck1.release.countDown();
+        stuck2.release.countDown();
+        ThreadPoolExecutor senders = (ThreadPoolExecutor) ReflectionTestUtils.getField(hub, "senders");
+        while (senders.getCorePoolSize() > 2 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(2, senders.getCorePoolSize());
+    }
+
+    @Test
+    void testReplayIsSentBeforeCommentsPublishedDuringReconnect() throws Exception {
+        ReflectionTestUtils.invokeMethod(hub, "stop");
+        ReflectionTestUtils.setField(hub, "queueCapacity", 10);
+        ReflectionTestUtils.invokeMethod(hub, "start");
+        OrderEmitter emitter = new OrderEmitter();
+        emitters.add(emitter);
+        SpelAwareProxyProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+        List<CommentSummary> missed = List.of(
+                projections.createProjection(CommentSummary.class, Map.of("id", 3L, "authorId", 2L, "text", "comment 3",
+                        "timestamp", LocalDateTime.of(2023, 6, 1, 12, 0))),
+                projections.createProjection(CommentSummary.class, Map.of("id", 4L, "authorId", 2L, "text", "comment 4",
+                        "timestamp", LocalDateTime.of(2023, 6, 1, 12, 0))));
+        // Comments 4 and 5 are published while the replay is being read; 4 was already committed and is replayed.
+        when(commentRepository.findAfter(eq(1L), any(LocalDateTime.class), anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            hub.publish(List.of(comment(4L), comment(5L)));
+            ((ScheduledExecutorService) ReflectionTestUtils.getField(hub, "dispatcher")).submit(() -> { }).get();
+            return missed;
+        });
+
+        hub.subscribe(1L, CursorCodec.encode(LocalDateTime.of(2023, 6, 1, 11, 0).toEpochSecond(ZoneOffset.UTC), 0, 2L));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (emitter.texts.size() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(50);
+        assertEquals(List.of("comment 3", "comment 4", "comment 5"), emitter.texts);
+    }
+
+    private static CommentResponse comment(long id) {
+        return comment(id, 1L);
+    }
+
+    private static CommentResponse comment(long id, long recipeId) {
+        return new CommentResponse(id, recipeId, 2L, "comment " + id, LocalDateTime.of(2023, 6, 1, 12, 0));
+    }
+
+    private static class OrderEmitter extends SseEmitter {
+        private final List<String> texts = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(data -> event.append(data.getData()));
+            Matcher matcher = Pattern.compile("comment \\d+").matcher(event);
+            if (matcher.find()) {
+                texts.add(matcher.group());
+            }
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final CountDownLatch release;
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch sent = new CountDownLatch(1);
+        private final CountDownLatch failed = new CountDownLatch(1);
+        private final AtomicInteger sentCount = new AtomicInteger();
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sentCount.incrementAndGet();
+            sent.countDown();
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            failed.countDown();
+        }
+    }
+}
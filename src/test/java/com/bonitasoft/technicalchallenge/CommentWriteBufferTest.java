@@ -0,0 +1,82 @@
+package com.bonitasoft.technicalchallenge;
+
+import com.bonitasoft.technicalchallenge.payload.response.CommentResponse;
+import com.bonitasoft.technicalchallenge.services.cache.RecipeCache;
+import com.bonitasoft.technicalchallenge.services.comments.CommentStreamHub;
+import com.bonitasoft.technicalchallenge.services.comments.CommentWriteBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class CommentWriteBufferTest {
+    private static final String NEXT_ID_BLOCK = "select nextval('comment_seq')";
+
+    private JdbcTemplate jdbcTemplate;
+    private RecipeCache recipeCache;
+    private CommentStreamHub commentStreamHub;
+    private CommentWriteBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        recipeCache = mock(RecipeCache.class);
+        commentStreamHub = mock(CommentStreamHub.class);
+        when(jdbcTemplate.queryForObject(NEXT_ID_BLOCK, Long.class)).thenReturn(100L, 150L);
+        buffer = new CommentWriteBuffer();
+        ReflectionTestUtils.setField(buffer, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(buffer, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(buffer, "recipeCache", recipeCache);
+        ReflectionTestUtils.setField(buffer, "commentStreamHub", commentStreamHub);
+        ReflectionTestUtils.setField(buffer, "batchSize", 10);
+        ReflectionTestUtils.setField(buffer, "queue", new ArrayBlockingQueue<CommentResponse>(3));
+        ReflectionTestUtils.setField(buffer, "nextIdBlockQuery", NEXT_ID_BLOCK);
+    }
+
+    @Test
+    void testIdsComeFromPooledSequenceBlocks() {
+        for (long expected = 51; expected <= 53; expected++) {
+            assertEquals(expected, buffer.submit(1L, 2L, "Nice").orElseThrow().getId());
+            ReflectionTestUtils.invokeMethod(buffer, "flush");
+        }
+        verify(jdbcTemplate, times(1)).queryForObject(NEXT_ID_BLOCK, Long.class);
+    }
+
+    @Test
+    void testRefusesCommentsWhenFull() {
+        assertTrue(buffer.submit(1L, 2L, "One").isPresent());
+        assertTrue(buffer.submit(1L, 2L, "Two").isPresent());
+        assertTrue(buffer.submit(3L, 2L, "Three").isPresent());
+
+        assertTrue(buffer.submit(1L, 2L, "Four").isEmpty());
+        assertEquals(3, buffer.pending());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlushInsertsOneBatchInvalidatesRecipesAndPublishes() {
+        buffer.submit(1L, 2L, "One");
+        buffer.submit(1L, 2L, "Two");
+        buffer.submit(3L, 2L, "Three");
+
+        ReflectionTestUtils.invokeMethod(buffer, "flush");
+
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("insert into comment"), anyList(), eq(3),
+                any(ParameterizedPreparedStatementSetter.class));
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("update recipe"), eq(List.of(1L, 3L)), eq(2),
+                any(ParameterizedPreparedStatementSetter.class));
+        verify(recipeCache, times(1)).invalidate(1L);
+        verify(recipeCache, times(1)).invalidate(3L);
+        verify(commentStreamHub, times(1)).publish(argThat(comments -> comments.size() == 3));
+        assertEquals(0, buffer.pending());
+    }
+}
@@ -0,0 +1,45 @@
+package com.bonitasoft.technicalchallenge;
+
+import com.bonitasoft.technicalchallenge.repository.projection.RecipeVersion;
+import com.bonitasoft.technicalchallenge.utils.ETags;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ETagsTest {
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+    @Test
+    void testPageTagFollowsEveryRow() {
+        String etag = ETags.page(0L, 20, List.of(version(1L, 0L), version(2L, 0L)));
+
+        assertEquals(etag, ETags.page(0L, 20, List.of(version(1L, 0L), version(2L, 0L))));
+        assertNotEquals(etag, ETags.page(0L, 20, List.of(version(1L, 0L), version(2L, 1L))));
+        assertNotEquals(etag, ETags.page(0L, 20, List.of(version(1L, 0L))));
+        assertNotEquals(etag, ETags.page(0L, 10, List.of(version(1L, 0L), version(2L, 0L))));
+    }
+
+    @Test
+    void testIfNoneMatch() {
+        String etag = ETags.recipe(1L, 2L);
+
+        assertEquals("\"1-2\"", etag);
+        assertTrue(ETags.matches("\"1-2\"", etag));
+        assertTrue(ETags.matches("\"0-1\", W/\"1-2\"", etag));
+        assertTrue(ETags.matches("*", etag));
+        assertFalse(ETags.matches("\"1-1\"", etag));
+        assertFalse(ETags.matches(null, etag));
+    }
+
+    private RecipeVersion version(long id, long version) {
+        return projectionFactory.createProjection(RecipeVersion.class, Map.of("id", id, "version", version));
+    }
+}
@@ -0,0 +1,53 @@
+package com.bonitasoft.technicalchallenge;
+
+import com.bonitasoft.technicalchallenge.services.search.FullTextSearchSchemaInitializer;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class FullTextSearchSchemaInitializerTest {
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withBean(DataSource.class, () -> mock(DataSource.class))
+            .withUserConfiguration(FullTextSearchSchemaInitializer.class);
+
+    @Test
+    void testOnlyRegisteredForThePostgresBackend() {
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(FullTextSearchSchemaInitializer.class));
+        contextRunner.withPropertyValues("cooking.app.search.backend=memory")
+                .run(context -> assertThat(context).doesNotHaveBean(FullTextSearchSchemaInitializer.class));
+        contextRunner.withPropertyValues("cooking.app.search.backend=postgres")
+                .run(context -> assertThat(context).hasSingleBean(FullTextSearchSchemaInitializer.class));
+    }
+
+    @Test
+    void testCreatesTheSearchVectorAndItsIndex() throws Exception {
+        Statement statement = mock(Statement.class);
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        FullTextSearchSchemaInitializer initializer = new FullTextSearchSchemaInitializer();
+        ReflectionTestUtils.setField(initializer, "dataSource", dataSource);
+
+        initializer.createSearchVector();
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(statement, times(2)).execute(sql.capture());
+        List<String> statements = sql.getAllValues();
+        assertTrue(statements.get(0).startsWith("ALTER TABLE recipe ADD COLUMN IF NOT EXISTS search_vector tsvector"));
+        assertTrue(statements.get(1).contains("USING GIN (search_vector)"));
+        assertEquals(2, statements.size());
+    }
+}
@@ -0,0 +1,62 @@
+package com.bonitasoft.technicalchallenge;
+
+import com.bonitasoft.technicalchallenge.services.search.IngredientIndex;
+import com.bonitasoft.technicalchallenge.services.search.IngredientNormalizer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IngredientIndexTest {
+    private IngredientIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new IngredientIndex();
+        index.index(1L, "3 eggs, 200g flour, 50cl milk");
+        index.index(2L, "2 eggs, 100g flour, 50g butter, 1 pinch of salt");
+        index.index(3L, "tomatoes; onion; 1 clove of garlic");
+        index.index(4L, "eggs");
+    }
+
+    @Test
+    void testNormalizerDropsQuantitiesAndUnits() {
+        assertEquals(Set.of("egg", "flour", "whole milk"), IngredientNormalizer.parse("2 Eggs, 200g flour; 1 cup of whole milk"));
+        assertEquals("tomato", IngredientNormalizer.normalize("Tomatoes"));
+    }
+
+    @Test
+    void testFullyCoveredRecipes() {
+        List<IngredientIndex.Match> matches = index.cookable(List.of("Eggs", "flour", "milk"), 0, 10);
+
+        assertEquals(List.of(1L, 4L), matches.stream().map(IngredientIndex.Match::recipeId).sorted().toList());
+        assertTrue(matches.stream().allMatch(match -> match.missing().isEmpty()));
+    }
+
+    @Test
+    void testRecipesMissingSomeIngredients() {
+        List<IngredientIndex.Match> matches = index.cookable(List.of("egg", "flour"), 2, 10);
+
+        // Fewest missing first: recipe 4 lacks nothing, recipe 1 lacks milk, recipe 2 lacks butter and salt.
+        assertEquals(List.of(4L, 1L, 2L), matches.stream().map(IngredientIndex.Match::recipeId).toList());
+        assertEquals(Set.of("butter", "salt"), matches.get(2).missing());
+    }
+
+    @Test
+    void testUnknownPantryReturnsNothing() {
+        assertTrue(index.cookable(List.of("caviar"), 3, 10).isEmpty());
+    }
+
+    @Test
+    void testUpdateAndRemove() {
+        index.index(1L, "eggs, sugar");
+        assertEquals(List.of(4L), index.cookable(List.of("egg", "flour", "milk"), 0, 10).stream().map(IngredientIndex.Match::recipeId).toList());
+
+        index.remove(4L);
+        assertTrue(index.cookable(List.of("egg"), 0, 10).isEmpty());
+    }
+}
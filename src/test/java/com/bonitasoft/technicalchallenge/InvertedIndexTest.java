@@ -0,0 +1,70 @@
+package com.bonitasoft.technicalchallenge;
+
+import com.bonitasoft.technicalchallenge.services.search.InvertedIndex;
+import com.bonitasoft.technicalchallenge.services.search.TextTokenizer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvertedIndexTest {
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+        index.index(1L, "Tomato soup", "soup,vegetarian", "tomato, onion, garlic");
+        index.index(2L, "Garlic bread", "bread,starter", "bread, garlic, butter");
+        index.index(3L, "Spaghetti bolognese", "pasta,italian", "spaghetti, beef, tomato, onion");
+    }
+
+    @Test
+    void testMatchAllRequiresEveryTerm() {
+        assertEquals(List.of(1L, 3L), sorted(index.search(TextTokenizer.tokenize("tomato onion"), true, 0, 10)));
+        assertEquals(Collections.emptyList(), index.search(TextTokenizer.tokenize("tomato butter"), true, 0, 10));
+    }
+
+    @Test
+    void testMatchAnyAcceptsSomeTerm() {
+        assertEquals(List.of(1L, 2L, 3L), sorted(index.search(TextTokenizer.tokenize("butter tomato"), false, 0, 10)));
+    }
+
+    @Test
+    void testTitleMatchesRankFirst() {
+        // "garlic" is an ingredient of both, but only recipe 2 has it in its title.
+        assertEquals(List.of(2L, 1L), index.search(TextTokenizer.tokenize("Garlic"), true, 0, 10));
+    }
+
+    @Test
+    void testPagination() {
+        List<Long> all = index.search(TextTokenizer.tokenize("tomato garlic"), false, 0, 10);
+        assertEquals(all.subList(1, 3), index.search(TextTokenizer.tokenize("tomato garlic"), false, 1, 2));
+        assertTrue(index.search(TextTokenizer.tokenize("tomato garlic"), false, 10, 2).isEmpty());
+        // Would overflow, or size a heap for the requested depth rather than for the matches.
+        assertTrue(index.search(TextTokenizer.tokenize("tomato garlic"), false, Integer.MAX_VALUE - 1, 100).isEmpty());
+    }
+
+    @Test
+    void testUpdateAndRemove() {
+        index.index(2L, "Butter cookies", "dessert", "butter, flour, sugar");
+        assertTrue(index.search(TextTokenizer.tokenize("bread"), true, 0, 10).isEmpty());
+        assertEquals(List.of(2L), index.search(TextTokenizer.tokenize("cookies"), true, 0, 10));
+
+        index.remove(2L);
+        assertTrue(index.search(TextTokenizer.tokenize("cookies"), true, 0, 10).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void testTokenizerFoldsCaseAndAccents() {
+        assertEquals(List.of("creme", "brulee", "vanilla"), TextTokenizer.tokenize("Crème Brûlée, VANILLA"));
+    }
+
+    private static List<Long> sorted(List<Long> ids) {
+        return ids.stream().sorted().toList();
+    }
+}
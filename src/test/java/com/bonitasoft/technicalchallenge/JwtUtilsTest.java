@@ -0,0 +1,71 @@
+package com.bonitasoft.technicalchallenge;
+
+import com.bonitasoft.technicalchallenge.security.jwt.JwtUtils;
+import com.bonitasoft.technicalchallenge.security.jwt.JwtVerifier;
+import com.bonitasoft.technicalchallenge.security.services.UserDetailsImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilsTest {
+    private static final String SECRET = "o8hqH5GAfTuNlE0RKmQ7XX4jvPgi3sbWU7d6rS9LcJ1z4YH2pnwF0VuyIMtBkOD";
+
+    private JwtUtils jwtUtils;
+    private JwtVerifier jwtVerifier;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60000);
+        ReflectionTestUtils.setField(jwtUtils, "jwtCookie", "cooking");
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+
+        jwtVerifier = new JwtVerifier();
+        ReflectionTestUtils.setField(jwtVerifier, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(jwtVerifier, "cacheSize", 100L);
+        ReflectionTestUtils.invokeMethod(jwtVerifier, "init");
+    }
+
+    @Test
+    void testPrincipalIsRebuiltFromClaims() {
+        UserDetailsImpl chef = new UserDetailsImpl(7L, "chef", "chef@example.com", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_CHEF")), 3);
+
+        String token = jwtUtils.generateTokenFromUsername(chef);
+        UserDetailsImpl principal = jwtVerifier.verify(token).orElseThrow();
+
+        assertEquals(7L, principal.getId());
+        assertEquals("chef", principal.getUsername());
+        assertEquals("chef@example.com", principal.getEmail());
+        assertNull(principal.getPassword());
+        assertEquals(3, principal.getTokenVersion());
+        assertEquals(List.of("ROLE_USER", "ROLE_CHEF"), principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    @Test
+    void testRejectsTamperedToken() {
+        UserDetailsImpl user = new UserDetailsImpl(1L, "user", "user@example.com", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        String token = jwtUtils.generateTokenFromUsername(user);
+
+        assertTrue(jwtVerifier.verify(token.substring(0, token.length() - 2) + "xx").isEmpty());
+        assertTrue(jwtVerifier.verify("not-a-token").isEmpty());
+    }
+
+    @Test
+    void testRepeatedTokenIsServedFromCache() {
+        UserDetailsImpl user = new UserDetailsImpl(1L, "user", "user@example.com", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        String token = jwtUtils.generateTokenFromUsername(user);
+
+        UserDetailsImpl first = jwtVerifier.verify(token).orElseThrow();
+        assertSame(first, jwtVerifier.verify(token).orElseThrow());
+    }
+}
@@ -0,0 +1,58 @@
+package com.bonitasoft.technicalchallenge;
+
+import com.bonitasoft.technicalchallenge.security.services.LoginThrottle;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LoginThrottleTest {
+    private final AtomicLong now = new AtomicLong();
+
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        throttle = new LoginThrottle();
+        ReflectionTestUtils.setField(throttle, "maximumSize", 100L);
+        ReflectionTestUtils.setField(throttle, "usernameCapacity", 2);
+        ReflectionTestUtils.setField(throttle, "usernameRefillPeriod", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(throttle, "addressCapacity", 3);
+        ReflectionTestUtils.setField(throttle, "addressRefillPeriod", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(throttle, "ticker", (Ticker) now::get);
+        ReflectionTestUtils.invokeMethod(throttle, "init");
+    }
+
+    @Test
+    void testLimitsAttemptsPerUsername() {
+        assertEquals(0, throttle.tryAcquire("john", "10.0.0.1"));
+        assertEquals(0, throttle.tryAcquire("john", "10.0.0.2"));
+        assertEquals(30, throttle.tryAcquire("john", "10.0.0.3"));
+        assertEquals(0, throttle.tryAcquire("jane", "10.0.0.4"));
+    }
+
+    @Test
+    void testLimitsAttemptsPerAddress() {
+        assertEquals(0, throttle.tryAcquire("a", "10.0.0.1"));
+        assertEquals(0, throttle.tryAcquire("b", "10.0.0.1"));
+        assertEquals(0, throttle.tryAcquire("c", "10.0.0.1"));
+        assertEquals(10, throttle.tryAcquire("d", "10.0.0.1"));
+        assertEquals(0, throttle.tryAcquire("d", "10.0.0.2"));
+    }
+
+    @Test
+    void testRefillsOverTime() {
+        throttle.tryAcquire("john", "10.0.0.1");
+        throttle.tryAcquire("john", "10.0.0.1");
+        now.addAndGet(Duration.ofSeconds(20).toNanos());
+        assertEquals(10, throttle.tryAcquire("john", "10.0.0.1"));
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertEquals(0, throttle.tryAcquire("john", "10.0.0.1"));
+    }
+}
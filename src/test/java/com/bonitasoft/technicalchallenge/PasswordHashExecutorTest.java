@@ -0,0 +1,87 @@
+package com.bonitasoft.technicalchallenge;
+
+import com.bonitasoft.technicalchallenge.payload.response.PasswordHashingStatsResponse;
+import com.bonitasoft.technicalchallenge.security.services.ExecutorPasswordEncoder;
+import com.bonitasoft.technicalchallenge.security.services.PasswordHashExecutor;
+import com.bonitasoft.technicalchallenge.security.services.PasswordHashingRejectedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashExecutorTest {
+    private PasswordHashExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new PasswordHashExecutor();
+        ReflectionTestUtils.setField(executor, "threads", 1);
+        ReflectionTestUtils.setField(executor, "queueCapacity", 1);
+        ReflectionTestUtils.invokeMethod(executor, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(executor, "stop");
+    }
+
+    @Test
+    void testEncodesAndMatchesOnThePool() {
+        PasswordEncoder encoder = new ExecutorPasswordEncoder(new BCryptPasswordEncoder(4), executor);
+
+        String hash = encoder.encode("secret");
+
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("other", hash));
+        PasswordHashingStatsResponse stats = executor.stats();
+        assertEquals(3, stats.getCompleted());
+        assertEquals(0, stats.getRejected());
+    }
+
+    @Test
+    void testUpgradesWeakerHashes() {
+        PasswordEncoder encoder = new ExecutorPasswordEncoder(new BCryptPasswordEncoder(5), executor);
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+    }
+
+    @Test
+    void testRejectsWhenPoolAndQueueAreFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> executor.execute(() -> {
+            started.countDown();
+            await(release);
+            return true;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> executor.execute(() -> true));
+        while (executor.stats().getQueueDepth() == 0) {
+            Thread.sleep(1);
+        }
+
+        assertThrows(PasswordHashingRejectedException.class, () -> executor.execute(() -> true));
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+        assertEquals(1, executor.stats().getRejected());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
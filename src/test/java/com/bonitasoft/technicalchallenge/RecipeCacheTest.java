@@ -0,0 +1,97 @@
+package com.bonitasoft.technicalchallenge;
+
+import com.bonitasoft.technicalchallenge.model.Recipe;
+import com.bonitasoft.technicalchallenge.payload.response.CacheStatsResponse;
+import com.bonitasoft.technicalchallenge.repository.CommentRepository;
+import com.bonitasoft.technicalchallenge.repository.RecipeRepository;
+import com.bonitasoft.technicalchallenge.services.cache.CachedRecipe;
+import com.bonitasoft.technicalchallenge.services.cache.RecipeCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class RecipeCacheTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private RecipeRepository recipeRepository;
+    private RecipeCache recipeCache;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository = mock(RecipeRepository.class);
+        recipeCache = new RecipeCache();
+        ReflectionTestUtils.setField(recipeCache, "recipeRepository", recipeRepository);
+        ReflectionTestUtils.setField(recipeCache, "commentRepository", mock(CommentRepository.class));
+        ReflectionTestUtils.setField(recipeCache, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(recipeCache, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(recipeCache, "maximumBytes", DataSize.ofMegabytes(1));
+        ReflectionTestUtils.setField(recipeCache, "ttl", Duration.ofMinutes(10));
+        ReflectionTestUtils.invokeMethod(recipeCache, "init");
+    }
+
+    @Test
+    void testSerializesOnceUntilInvalidated() throws Exception {
+        Recipe recipe = recipe(1L, "Pasta");
+        when(recipeRepository.findDetailedById(1L)).thenReturn(Optional.of(recipe));
+
+        CachedRecipe cached = recipeCache.get(1L).orElseThrow();
+        assertSame(cached, recipeCache.get(1L).orElseThrow());
+        assertEquals("Pasta", objectMapper.readTree(cached.json()).get("title").asText());
+        assertFalse(cached.hasGzip());
+        verify(recipeRepository, times(1)).findDetailedById(1L);
+
+        recipe.setVersion(1L);
+        recipeCache.invalidate(1L);
+        assertEquals(1L, recipeCache.get(1L).orElseThrow().version());
+        verify(recipeRepository, times(2)).findDetailedById(1L);
+
+        CacheStatsResponse stats = recipeCache.stats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(2, stats.getMissCount());
+    }
+
+    @Test
+    void testLargeRecipesAreAlsoGzipped() throws Exception {
+        when(recipeRepository.findDetailedById(1L)).thenReturn(Optional.of(recipe(1L, "Pasta ".repeat(500))));
+
+        CachedRecipe cached = recipeCache.get(1L).orElseThrow();
+
+        assertTrue(cached.hasGzip());
+        assertTrue(cached.gzip().length < cached.json().length);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(cached.gzip()))) {
+            assertArrayEquals(cached.json(), gzip.readAllBytes());
+        }
+    }
+
+    @Test
+    void testMissingRecipeIsNotCached() {
+        when(recipeRepository.findDetailedById(2L)).thenReturn(Optional.empty());
+
+        assertFalse(recipeCache.get(2L).isPresent());
+        assertFalse(recipeCache.get(2L).isPresent());
+        verify(recipeRepository, times(2)).findDetailedById(2L);
+    }
+
+    private static Recipe recipe(long id, String title) {
+        Recipe recipe = new Recipe();
+        recipe.setId(id);
+        recipe.setTitle(title);
+        recipe.setComments(new ArrayList<>());
+        return recipe;
+    }
+}
@@ -0,0 +1,137 @@
+package com.bonitasoft.technicalchallenge;
+
+import com.bonitasoft.technicalchallenge.model.Rating;
+import com.bonitasoft.technicalchallenge.model.Recipe;
+import com.bonitasoft.technicalchallenge.model.User;
+import com.bonitasoft.technicalchallenge.payload.response.ChangesResponse;
+import com.bonitasoft.technicalchallenge.repository.DeletedUserRepository;
+import com.bonitasoft.technicalchallenge.repository.RecipeRepository;
+import com.bonitasoft.technicalchallenge.repository.projection.RecipeSummary;
+import com.bonitasoft.technicalchallenge.services.sync.RecipeChangeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "cooking.app.sync.settleTime=0s"
+})
+@Import(RecipeChangeService.class)
+class RecipeChangeServiceTest {
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private RecipeChangeService recipeChangeService;
+
+    @Autowired
+    private DeletedUserRepository deletedUserRepository;
+
+    private long chefId;
+    private final List<Long> recipeIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User chef = entityManager.persist(new User("chef", "chef@example.com", "password"));
+        for (int i = 0; i < 3; i++) {
+            recipeIds.add(entityManager.persist(new Recipe("Pasta " + i, "pasta, tomato", chef, "pasta")).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        chefId = chef.getId();
+    }
+
+    @Test
+    void testFirstSyncIsPaginated() {
+        ChangesResponse first = recipeChangeService.changesSince(null, 2);
+        ChangesResponse second = recipeChangeService.changesSince(first.getNext(), 2);
+        ChangesResponse third = recipeChangeService.changesSince(second.getNext(), 2);
+
+        assertEquals(recipeIds.subList(0, 2), ids(first));
+        assertTrue(first.isHasMore());
+        assertEquals(recipeIds.subList(2, 3), ids(second));
+        assertFalse(second.isHasMore());
+        assertTrue(third.getUpdated().isEmpty());
+        assertEquals(second.getNext(), third.getNext());
+    }
+
+    @Test
+    void testOnlyChangesAfterTheTokenAreReturned() {
+        String token = recipeChangeService.changesSince(null, 10).getNext();
+
+        recipeRepository.bumpVersion(recipeIds.get(1), LocalDateTime.now());
+        recipeChangeService.deleteRecipe(recipeRepository.findById(recipeIds.get(0)).orElseThrow());
+        entityManager.flush();
+        ChangesResponse changes = recipeChangeService.changesSince(token, 10);
+
+        assertEquals(List.of(recipeIds.get(1)), ids(changes));
+        assertEquals(List.of(recipeIds.get(0)), changes.getDeleted());
+        assertFalse(changes.isHasMore());
+    }
+
+    @Test
+    void testDeletingUserLeavesTombstonesForTheirRecipes() {
+        String token = recipeChangeService.changesSince(null, 10).getNext();
+
+        assertEquals(recipeIds, recipeChangeService.deleteUser(chefId));
+        entityManager.flush();
+        entityManager.clear();
+        ChangesResponse changes = recipeChangeService.changesSince(token, 10);
+
+        assertTrue(changes.getUpdated().isEmpty());
+        assertEquals(recipeIds, changes.getDeleted());
+        assertTrue(recipeRepository.findAll().isEmpty());
+        assertEquals(List.of(chefId), deletedUserRepository.findUserIdsDeletedAfter(LocalDateTime.now().minusHours(1)));
+    }
+
+    @Test
+    void testDeletingUserWithdrawsTheirRatings() {
+        User critic = entityManager.persist(new User("critic", "critic@example.com", "password"));
+        Recipe ownRecipe = entityManager.persist(new Recipe("Salad", "lettuce", critic, "salad"));
+        User chef = entityManager.find(User.class, chefId);
+        rate(recipeIds.get(0), chef, 2);
+        rate(recipeIds.get(0), critic, 4);
+        rate(recipeIds.get(1), critic, 5);
+        rate(ownRecipe.getId(), critic, 3);
+
+        recipeChangeService.deleteUser(critic.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        Recipe stillRated = recipeRepository.findById(recipeIds.get(0)).orElseThrow();
+        assertEquals(1, stillRated.getRatingCount());
+        assertEquals(2, stillRated.getRatingSum());
+        assertEquals(2.0, stillRated.getRatingAverage());
+        Recipe unrated = recipeRepository.findById(recipeIds.get(1)).orElseThrow();
+        assertEquals(0, unrated.getRatingCount());
+        assertEquals(0, unrated.getRatingSum());
+        assertEquals(0.0, unrated.getRatingAverage());
+        assertFalse(recipeRepository.existsById(ownRecipe.getId()));
+    }
+
+    @Test
+    void testRejectsForeignToken() {
+        assertThrows(IllegalArgumentException.class, () -> recipeChangeService.changesSince("bm90LWEtdG9rZW4", 10));
+    }
+
+    private static List<Long> ids(ChangesResponse changes) {
+        return changes.getUpdated().stream().map(RecipeSummary::getId).toList();
+    }
+
+    private void rate(long recipeId, User user, int score) {
+        entityManager.persist(new Rating(entityManager.find(Recipe.class, recipeId), user, score, LocalDateTime.now()));
+        recipeRepository.addRating(recipeId, score, 1, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,81 @@
+package com.bonitasoft.technicalchallenge;
+
+import com.bonitasoft.technicalchallenge.model.Comment;
+import com.bonitasoft.technicalchallenge.model.Recipe;
+import com.bonitasoft.technicalchallenge.model.User;
+import com.bonitasoft.technicalchallenge.services.export.RecipeExportService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "cooking.app.export.fetchSize=1"
+})
+@Import(RecipeExportService.class)
+class RecipeExportServiceTest {
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RecipeExportService recipeExportService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private long chefId;
+    private long pastaId;
+
+    @BeforeEach
+    void setUp() {
+        User chef = entityManager.persist(new User("chef", "chef@example.com", "password"));
+        Recipe pasta = entityManager.persist(new Recipe("Pasta \"al dente\", quick", "pasta, tomato", chef, "pasta"));
+        entityManager.persist(new Comment(null, "Delicious", chef, pasta, LocalDateTime.now()));
+        entityManager.persist(new Comment(null, "Again", chef, pasta, LocalDateTime.now()));
+        entityManager.persist(new Recipe("Salad", "lettuce", null, null));
+        entityManager.flush();
+        chefId = chef.getId();
+        pastaId = pasta.getId();
+    }
+
+    @Test
+    void testExportCsv() throws Exception {
+        String[] lines = export(RecipeExportService.Format.CSV).split("\r\n");
+
+        assertEquals(3, lines.length);
+        assertEquals("id,title,ingredients,keywords,version,author_id,author_username,comment_count", lines[0]);
+        assertEquals(pastaId + ",\"Pasta \"\"al dente\"\", quick\",\"pasta, tomato\",pasta,0," + chefId + ",chef,2", lines[1]);
+        assertTrue(lines[2].endsWith(",Salad,lettuce,,0,,,0"));
+    }
+
+    @Test
+    void testExportNdjson() throws Exception {
+        String[] lines = export(RecipeExportService.Format.NDJSON).split("\n");
+
+        assertEquals(2, lines.length);
+        JsonNode pasta = objectMapper.readTree(lines[0]);
+        assertEquals("Pasta \"al dente\", quick", pasta.get("title").asText());
+        assertEquals(chefId, pasta.get("authorId").asLong());
+        assertEquals(2, pasta.get("commentCount").asInt());
+        JsonNode salad = objectMapper.readTree(lines[1]);
+        assertTrue(salad.get("authorId").isNull());
+        assertEquals(0, salad.get("commentCount").asInt());
+    }
+
+    private String export(RecipeExportService.Format format) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        recipeExportService.export(format, outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+}
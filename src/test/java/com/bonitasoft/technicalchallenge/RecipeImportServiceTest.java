@@ -0,0 +1,105 @@
+package com.bonitasoft.technicalchallenge;
+
+import com.bonitasoft.technicalchallenge.model.Recipe;
+import com.bonitasoft.technicalchallenge.model.User;
+import com.bonitasoft.technicalchallenge.payload.response.ImportResponse;
+import com.bonitasoft.technicalchallenge.services.bulk.RecipeImportService;
+import com.bonitasoft.technicalchallenge.services.search.RecipeSearchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "cooking.app.import.batchSize=2"
+})
+@Import(RecipeImportService.class)
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+class RecipeImportServiceTest {
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RecipeImportService recipeImportService;
+
+    @MockBean
+    private RecipeSearchService recipeSearchService;
+
+    private long chefId;
+
+    @BeforeEach
+    void setUp() {
+        chefId = entityManager.persistAndFlush(new User("chef", "chef@example.com", "password")).getId();
+    }
+
+    @Test
+    void testImportJsonArray() throws Exception {
+        String body = "[" +
+                "{\"title\":\"Pasta\",\"ingredients\":\"pasta\",\"keywords\":\"italian\"}," +
+                "{\"title\":\"\",\"ingredients\":\"rice\",\"keywords\":\"asian\"}," +
+                "{\"title\":\"Soup\",\"ingredients\":\"water\",\"keywords\":\"hot\"}," +
+                "{\"title\":\"Salad\",\"ingredients\":\"lettuce\",\"keywords\":\"green\"}" +
+                "]";
+
+        ImportResponse response = recipeImportService.importJsonArray(chefId, stream(body));
+
+        assertEquals(3, response.getImported());
+        assertEquals(1, response.getFailed());
+        assertEquals(2, response.getErrors().get(0).getRow());
+        assertEquals("Error: title must not be blank", response.getErrors().get(0).getMessage());
+        assertEquals(List.of("Pasta", "Salad", "Soup"), titles());
+        verify(recipeSearchService, times(3)).indexRecipe(any(Recipe.class));
+    }
+
+    @Test
+    void testImportNdjsonKeepsGoingAfterBadLines() throws Exception {
+        String body = "{\"title\":\"Pasta\",\"ingredients\":\"pasta\",\"keywords\":\"italian\"}\n" +
+                "{\"title\":\"Broken\"\n" +
+                "\n" +
+                "[1, 2]\n" +
+                "{\"title\":\"Soup\",\"ingredients\":\"water\",\"keywords\":\"hot\"}\n";
+
+        ImportResponse response = recipeImportService.importNdjson(chefId, stream(body));
+
+        assertEquals(2, response.getImported());
+        assertEquals(2, response.getFailed());
+        assertEquals(2, response.getErrors().get(0).getRow());
+        assertEquals(4, response.getErrors().get(1).getRow());
+        assertEquals(List.of("Pasta", "Soup"), titles());
+    }
+
+    @Test
+    void testImportRejectsNonArray() throws Exception {
+        ImportResponse response = recipeImportService.importJsonArray(chefId, stream("{\"title\":\"Pasta\"}"));
+
+        assertEquals(0, response.getImported());
+        assertEquals(1, response.getFailed());
+    }
+
+    private List<String> titles() {
+        return entityManager.getEntityManager()
+                .createQuery("select r.title from Recipe r where r.author.id = :chefId order by r.title", String.class)
+                .setParameter("chefId", chefId)
+                .getResultList();
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,231 @@
+package com.bonitasoft.technicalchallenge;
+
+import com.bonitasoft.technicalchallenge.model.Comment;
+import com.bonitasoft.technicalchallenge.model.ERole;
+import com.bonitasoft.technicalchallenge.model.Recipe;
+import com.bonitasoft.technicalchallenge.model.Role;
+import com.bonitasoft.technicalchallenge.model.User;
+import com.bonitasoft.technicalchallenge.repository.CommentRepository;
+import com.bonitasoft.technicalchallenge.repository.RecipeRepository;
+import com.bonitasoft.technicalchallenge.repository.projection.ChefRecipeStats;
+import com.bonitasoft.technicalchallenge.repository.projection.CommentSummary;
+import com.bonitasoft.technicalchallenge.repository.projection.RecipeSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Each endpoint must run a fixed number of statements, whatever the number of recipes, comments and users involved.
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class RecipeRepositoryTest {
+    private static final int RECIPES = 10;
+    private static final int COMMENTERS = 5;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private Statistics statistics;
+    private long chefId;
+    private long commenterId;
+    private long recipeId;
+
+    @BeforeEach
+    void setUp() {
+        Role chefRole = entityManager.persist(new Role(ERole.ROLE_CHEF));
+        Role userRole = entityManager.persist(new Role(ERole.ROLE_USER));
+
+        User chef = new User("chef", "chef@example.com", "password");
+        chef.getRoles().add(chefRole);
+        entityManager.persist(chef);
+
+        List<User> commenters = new ArrayList<>();
+        for (int i = 0; i < COMMENTERS; i++) {
+            User commenter = new User("user" + i, "user" + i + "@example.com", "password");
+            commenter.getRoles().add(userRole);
+            commenters.add(entityManager.persist(commenter));
+        }
+
+        for (int i = 0; i < RECIPES; i++) {
+            Recipe recipe = entityManager.persist(new Recipe("Pasta " + i, "pasta, tomato", chef, "pasta,italian"));
+            for (User commenter : commenters) {
+                entityManager.persist(new Comment(null, "Delicious", commenter, recipe, LocalDateTime.now()));
+            }
+            recipeId = recipe.getId();
+        }
+        chefId = chef.getId();
+        commenterId = commenters.get(0).getId();
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testGetAllRecipesRunsOneStatement() throws Exception {
+        List<RecipeSummary> recipes = recipeRepository.findSummariesAfter(0L, PageRequest.of(0, RECIPES + 1));
+        objectMapper.writeValueAsString(recipes);
+
+        assertEquals(RECIPES, recipes.size());
+        assertEquals(COMMENTERS, recipes.get(0).getCommentCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testGetAllRecipesByChefRunsOneStatement() throws Exception {
+        List<RecipeSummary> recipes = recipeRepository.findSummariesByAuthor(chefId);
+        objectMapper.writeValueAsString(recipes);
+
+        assertEquals(RECIPES, recipes.size());
+        assertEquals("chef", recipes.get(0).getAuthorUsername());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testSearchRecipesRunsOneStatement() throws Exception {
+        List<RecipeSummary> recipes = recipeRepository.findSummariesByIdIn(List.of(recipeId, recipeId - 1));
+        objectMapper.writeValueAsString(recipes);
+
+        assertEquals(2, recipes.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testGetRecipeByIdRunsTwoStatements() throws Exception {
+        Recipe recipe = recipeRepository.findDetailedById(recipeId).orElseThrow();
+        objectMapper.writeValueAsString(recipe);
+
+        assertEquals(COMMENTERS, recipe.getCommentCount());
+        // The recipe with its author and comment count, then the author's roles.
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testCommentPagesRunOneStatementEach() throws Exception {
+        List<CommentSummary> firstPage = commentRepository.findLatest(recipeId, PageRequest.of(0, 3));
+        CommentSummary last = firstPage.get(2);
+        List<CommentSummary> secondPage = commentRepository.findBefore(recipeId, last.getTimestamp(), last.getId(), PageRequest.of(0, 3));
+        objectMapper.writeValueAsString(firstPage);
+        objectMapper.writeValueAsString(secondPage);
+
+        assertEquals(3, firstPage.size());
+        assertEquals(COMMENTERS - 3, secondPage.size());
+        Set<Long> ids = new HashSet<>();
+        firstPage.forEach(comment -> ids.add(comment.getId()));
+        secondPage.forEach(comment -> ids.add(comment.getId()));
+        assertEquals(COMMENTERS, ids.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testBumpVersion() {
+        long version = entityManager.find(Recipe.class, recipeId).getVersion();
+
+        assertEquals(1, recipeRepository.bumpVersion(recipeId, LocalDateTime.now()));
+        entityManager.clear();
+
+        assertEquals(version + 1, entityManager.find(Recipe.class, recipeId).getVersion());
+    }
+
+    @Test
+    void testSaveFailsOnceVersionWasBumped() {
+        Recipe recipe = recipeRepository.findById(recipeId).orElseThrow();
+        entityManager.detach(recipe);
+        recipeRepository.bumpVersion(recipeId, LocalDateTime.now());
+
+        recipe.setTitle("Pasta al pomodoro");
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> recipeRepository.saveAndFlush(recipe));
+    }
+
+    @Test
+    void testBumpVersionsByUser() {
+        // Every recipe has a comment from every commenter, and none of them authored a recipe.
+        assertEquals(RECIPES, recipeRepository.bumpVersionsByUser(commenterId, LocalDateTime.now()));
+        assertEquals(RECIPES, recipeRepository.bumpVersionsByUser(chefId, LocalDateTime.now()));
+        entityManager.clear();
+
+        assertEquals(2, entityManager.find(Recipe.class, recipeId).getVersion());
+    }
+
+    @Test
+    void testAddRatingMaintainsAggregates() {
+        recipeRepository.addRating(recipeId, 5, 1, LocalDateTime.now());
+        recipeRepository.addRating(recipeId, 2, 1, LocalDateTime.now());
+        // The first rater changes their 5 into a 3.
+        recipeRepository.addRating(recipeId, -2, 0, LocalDateTime.now());
+        entityManager.clear();
+
+        Recipe recipe = entityManager.find(Recipe.class, recipeId);
+        assertEquals(5, recipe.getRatingSum());
+        assertEquals(2, recipe.getRatingCount());
+        assertEquals(2.5, recipe.getRatingAverage());
+        assertEquals(3, recipe.getVersion());
+    }
+
+    @Test
+    void testTopRatedPagesRunOneStatementEach() throws Exception {
+        recipeRepository.addRating(recipeId, 4, 1, LocalDateTime.now());
+        recipeRepository.addRating(recipeId - 1, 5, 1, LocalDateTime.now());
+        recipeRepository.addRating(recipeId - 2, 4, 1, LocalDateTime.now());
+        entityManager.clear();
+        statistics.clear();
+
+        List<RecipeSummary> firstPage = recipeRepository.findTopRated(PageRequest.of(0, 2));
+        RecipeSummary last = firstPage.get(1);
+        List<RecipeSummary> secondPage = recipeRepository.findTopRatedBefore(last.getRatingAverage(), last.getId(), PageRequest.of(0, 2));
+        objectMapper.writeValueAsString(firstPage);
+        objectMapper.writeValueAsString(secondPage);
+
+        assertEquals(List.of(recipeId - 1, recipeId), firstPage.stream().map(RecipeSummary::getId).toList());
+        // Unrated recipes are not listed.
+        assertEquals(List.of(recipeId - 2), secondPage.stream().map(RecipeSummary::getId).toList());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testChefStatsRunOneStatement() throws Exception {
+        recipeRepository.addRating(recipeId, 4, 1, LocalDateTime.now());
+        entityManager.clear();
+        statistics.clear();
+
+        List<ChefRecipeStats> stats = recipeRepository.findStatsByAuthor(chefId);
+        objectMapper.writeValueAsString(stats);
+
+        assertEquals(RECIPES, stats.size());
+        ChefRecipeStats last = stats.get(RECIPES - 1);
+        assertEquals(recipeId, last.getId());
+        assertEquals(COMMENTERS, last.getCommentCount());
+        assertNotNull(last.getLastCommentAt());
+        assertEquals(1, last.getRatingCount());
+        assertEquals(4.0, last.getRatingAverage());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -1,34 +1,86 @@
 package com.bonitasoft.technicalchallenge;
 
 import com.bonitasoft.technicalchallenge.model.Comment;
+import com.bonitasoft.technicalchallenge.model.Rating;
 import com.bonitasoft.technicalchallenge.model.Recipe;
 import com.bonitasoft.technicalchallenge.model.User;
 import com.bonitasoft.technicalchallenge.payload.request.recipe.CreateCommentRequest;
 import com.bonitasoft.technicalchallenge.payload.request.recipe.CreateRecipeRequest;
+import com.bonitasoft.technicalchallenge.payload.request.recipe.RateRecipeRequest;
 import com.bonitasoft.technicalchallenge.payload.request.recipe.UpdateRecipeRequest;
+import com.bonitasoft.technicalchallenge.payload.response.ChangesResponse;
+import com.bonitasoft.technicalchallenge.payload.response.CommentResponse;
+import com.bonitasoft.technicalchallenge.payload.response.CookableRecipeResponse;
+import com.bonitasoft.technicalchallenge.payload.response.ImportResponse;
+import com.bonitasoft.technicalchallenge.payload.response.RecipeSearchResponse;
+import com.bonitasoft.technicalchallenge.payload.response.TrendingRecipeResponse;
 import com.bonitasoft.technicalchallenge.repository.CommentRepository;
 import com.bonitasoft.technicalchallenge.repository.RecipeRepository;
 import com.bonitasoft.technicalchallenge.repository.UserRepository;
+import com.bonitasoft.technicalchallenge.repository.projection.ChefRecipeStats;
+import com.bonitasoft.technicalchallenge.repository.projection.CommentSummary;
+import com.bonitasoft.technicalchallenge.repository.projection.RecipeSummary;
+import com.bonitasoft.technicalchallenge.repository.projection.RecipeVersion;
 import com.bonitasoft.technicalchallenge.resource.RecipeResource;
+import com.bonitasoft.technicalchallenge.security.WebSecurityConfig;
+import com.bonitasoft.technicalchallenge.security.jwt.AuthEntryPointJwt;
+import com.bonitasoft.technicalchallenge.security.jwt.JwtUtils;
+import com.bonitasoft.technicalchallenge.security.jwt.JwtVerifier;
+import com.bonitasoft.technicalchallenge.security.jwt.TokenRevocations;
+import com.bonitasoft.technicalchallenge.security.services.PasswordHashExecutor;
+import com.bonitasoft.technicalchallenge.security.services.UserDetailsImpl;
+import com.bonitasoft.technicalchallenge.security.services.UserDetailsServiceImpl;
+import com.bonitasoft.technicalchallenge.services.bulk.RecipeImportService;
+import com.bonitasoft.technicalchallenge.services.cache.CachedRecipe;
+import com.bonitasoft.technicalchallenge.services.cache.RecipeCache;
+import com.bonitasoft.technicalchallenge.services.comments.CommentStreamHub;
+import com.bonitasoft.technicalchallenge.services.comments.CommentWriteBuffer;
+import com.bonitasoft.technicalchallenge.services.popularity.RecipeViewCounter;
+import com.bonitasoft.technicalchallenge.services.ratings.RatingService;
+import com.bonitasoft.technicalchallenge.services.search.RecipeSearchService;
+import com.bonitasoft.technicalchallenge.services.sync.RecipeChangeService;
+import com.bonitasoft.technicalchallenge.utils.CursorCodec;
+import com.bonitasoft.technicalchallenge.utils.ETags;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.Mockito.*;
 
+// The application's security rules rather than Spring Boot's defaults, which deny anonymous reads and require CSRF
+// tokens. No JWT is ever sent: principals are UserDetailsImpl instances attached with user(...).
 @WebMvcTest(RecipeResource.class)
+@Import({WebSecurityConfig.class, AuthEntryPointJwt.class})
 public class RecipeResourceTest {
     @Autowired
     private MockMvc mockMvc;
@@ -42,19 +94,61 @@ public class RecipeResourceTest {
     @MockBean
     private CommentRepository commentRepository;
 
+    @MockBean
+    private RecipeSearchService recipeSearchService;
+
+    @MockBean
+    private RecipeCache recipeCache;
+
+    @MockBean
+    private RecipeImportService recipeImportService;
+
+    @MockBean
+    private CommentWriteBuffer commentWriteBuffer;
+
+    @MockBean
+    private CommentStreamHub commentStreamHub;
+
+    @MockBean
+    private RecipeViewCounter recipeViewCounter;
+
+    @MockBean
+    private RatingService ratingService;
+
+    @MockBean
+    private RecipeChangeService recipeChangeService;
+
+    @MockBean
+    private UserDetailsServiceImpl userDetailsService;
+
+    @MockBean
+    private PasswordHashExecutor passwordHashExecutor;
+
+    @MockBean
+    private JwtUtils jwtUtils;
+
+    @MockBean
+    private JwtVerifier jwtVerifier;
+
+    @MockBean
+    private TokenRevocations tokenRevocations;
+
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
     @Test
-    @WithMockUser(roles = "CHEF")
     public void testCreateRecipe() throws Exception {
+        UserDetailsImpl chef = new UserDetailsImpl(1L, "chef", "chef@example.com", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_CHEF")));
         // Mock request body
         CreateRecipeRequest request = new CreateRecipeRequest();
         request.setTitle("Test Recipe");
         request.setIngredients("Ingredient 1, Ingredient 2");
-        request.setKeywords("");
+        request.setKeywords("main");
 
         // Mock user repository
         User user = new User();
         user.setId(1L);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.findByUsername("chef")).thenReturn(Optional.of(user));
 
         // Mock recipe repository
         Recipe savedRecipe = new Recipe();
@@ -62,12 +156,13 @@ public class RecipeResourceTest {
         savedRecipe.setTitle("Test Recipe");
         savedRecipe.setIngredients("Ingredient 1, Ingredient 2");
         savedRecipe.setAuthor(user);
-        savedRecipe.setKeywords("");
+        savedRecipe.setKeywords("main");
         when(recipeRepository.save(any(Recipe.class))).thenReturn(savedRecipe);
 
         // Perform POST request
         ResultActions resultActions = mockMvc.perform(MockMvcRequestBuilders
                 .post("/api/recipe")
+                .with(SecurityMockMvcRequestPostProcessors.user(chef))
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(asJsonString(request)));
 
@@ -81,19 +176,84 @@ public class RecipeResourceTest {
         verify(recipeRepository, times(1)).save(any(Recipe.class));
     }
 
+    @Test
+    public void testCreateRecipe_Anonymous() throws Exception {
+        CreateRecipeRequest request = new CreateRecipeRequest();
+        request.setTitle("Test Recipe");
+        request.setIngredients("Ingredient 1, Ingredient 2");
+        request.setKeywords("main");
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .post("/api/recipe")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(request)))
+                .andExpect(MockMvcResultMatchers.status().isUnauthorized());
+
+        verifyNoInteractions(recipeRepository);
+    }
+
+    @Test
+    public void testImportRecipesNdjson() throws Exception {
+        UserDetailsImpl chef = new UserDetailsImpl(1L, "chef", "chef@example.com", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_CHEF")));
+        ImportResponse importResponse = new ImportResponse();
+        importResponse.setImported(2);
+        when(recipeImportService.importNdjson(eq(1L), any(InputStream.class))).thenReturn(importResponse);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .post("/api/recipe/import")
+                        .with(SecurityMockMvcRequestPostProcessors.user(chef))
+                        .with(SecurityMockMvcRequestPostProcessors.csrf())
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"title\":\"Pasta\"}\n{\"title\":\"Soup\"}\n"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.imported").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.failed").value(0));
+
+        verify(recipeImportService, never()).importJsonArray(anyLong(), any(InputStream.class));
+    }
+
+    @Test
+    public void testGetChefSummary() throws Exception {
+        UserDetailsImpl chef = new UserDetailsImpl(1L, "chef", "chef@example.com", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_CHEF")));
+        LocalDateTime lastComment = LocalDateTime.of(2023, 6, 1, 12, 0);
+        when(recipeRepository.findStatsByAuthor(1L)).thenReturn(List.of(
+                stats(1L, 3L, lastComment.minusDays(1), 1, 5.0),
+                stats(2L, 2L, lastComment, 3, 3.0),
+                stats(3L, 0L, null, 0, 0.0)));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/recipe/chef/summary")
+                        .with(SecurityMockMvcRequestPostProcessors.user(chef)))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.recipes.length()").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.recipeCount").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.commentCount").value(5))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.ratingCount").value(4))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.ratingAverage").value(3.5));
+    }
+
+    @Test
+    public void testGetChefSummary_RepositoryFailure() throws Exception {
+        UserDetailsImpl chef = new UserDetailsImpl(1L, "chef", "chef@example.com", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_CHEF")));
+        when(recipeRepository.findStatsByAuthor(1L)).thenThrow(new DataAccessResourceFailureException("Connection lost"));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/recipe/chef/summary")
+                        .with(SecurityMockMvcRequestPostProcessors.user(chef)))
+                .andExpect(MockMvcResultMatchers.status().isInternalServerError())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("Error occurred while retrieving recipe statistics"));
+    }
+
     @Test
     public void testGetAllRecipes() throws Exception {
         // Mock recipe repository
-        List<Recipe> recipes = new ArrayList<>();
-        Recipe recipe1 = new Recipe();
-        recipe1.setId(1L);
-        recipe1.setTitle("Recipe 1");
-        Recipe recipe2 = new Recipe();
-        recipe2.setId(2L);
-        recipe2.setTitle("Recipe 2");
-        recipes.add(recipe1);
-        recipes.add(recipe2);
-        when(recipeRepository.findAll()).thenReturn(recipes);
+        List<RecipeSummary> recipes = new ArrayList<>();
+        recipes.add(summary(1L, "Recipe 1"));
+        recipes.add(summary(2L, "Recipe 2"));
+        when(recipeRepository.findSummariesAfter(eq(0L), any(Pageable.class))).thenReturn(recipes);
 
         // Perform GET request
         ResultActions resultActions = mockMvc.perform(MockMvcRequestBuilders
@@ -102,22 +262,138 @@ public class RecipeResourceTest {
 
         // Verify the response
         resultActions.andExpect(MockMvcResultMatchers.status().isOk())
-                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(1L))
-                .andExpect(MockMvcResultMatchers.jsonPath("$[0].title").value("Recipe 1"))
-                .andExpect(MockMvcResultMatchers.jsonPath("$[1].id").value(2L))
-                .andExpect(MockMvcResultMatchers.jsonPath("$[1].title").value("Recipe 2"));
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].id").value(1L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].title").value("Recipe 1"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].commentCount").value(0))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[1].id").value(2L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[1].title").value("Recipe 2"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    public void testGetAllRecipes_NextPage() throws Exception {
+        // Mock recipe repository: one row more than the page size means another page exists
+        List<RecipeSummary> recipes = new ArrayList<>();
+        for (long id = 6; id <= 8; id++) {
+            recipes.add(summary(id, "Recipe " + id));
+        }
+        when(recipeRepository.findSummariesAfter(eq(5L), any(Pageable.class))).thenReturn(recipes);
+
+        // Perform GET request
+        ResultActions resultActions = mockMvc.perform(MockMvcRequestBuilders
+                .get("/api/recipe")
+                .param("cursor", CursorCodec.encode(5L))
+                .param("size", "2")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        // Verify the response
+        resultActions.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[1].id").value(7L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.next").value(CursorCodec.encode(7L)));
+    }
+
+    @Test
+    public void testGetAllRecipes_NotModified() throws Exception {
+        List<RecipeVersion> versions = List.of(version(1L, 0L), version(2L, 3L));
+        when(recipeRepository.findVersionsAfter(eq(0L), any(Pageable.class))).thenReturn(versions);
+        String etag = ETags.page(0L, 20, versions);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/recipe")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, etag));
+
+        verify(recipeRepository, never()).findSummariesAfter(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    public void testGetAllRecipes_InvalidCursor() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/recipe")
+                        .param("cursor", "not-a-cursor")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    public void testGetRecipeByID() throws Exception {
+        byte[] json = "{\"id\":1,\"title\":\"Recipe\"}".getBytes(StandardCharsets.UTF_8);
+        when(recipeCache.get(1L)).thenReturn(Optional.of(new CachedRecipe(1L, 0L, json, null)));
+
+        ResultActions resultActions = mockMvc.perform(MockMvcRequestBuilders
+                .get("/api/recipe/{id_recipe}", 1L)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+
+        resultActions.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1-0\""))
+                .andExpect(MockMvcResultMatchers.header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(1L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.title").value("Recipe"));
+        verify(recipeRepository, never()).findDetailedById(anyLong());
+        verify(recipeViewCounter, times(1)).record(1L);
+    }
+
+    @Test
+    public void testGetRecipeByID_NotModified() throws Exception {
+        when(recipeCache.version(1L)).thenReturn(Optional.of(4L));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/recipe/{id_recipe}", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-4\""))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1-4\""));
+
+        verify(recipeCache, never()).get(anyLong());
+        verify(recipeViewCounter, times(1)).record(1L);
+    }
+
+    @Test
+    public void testGetRecipeByID_Modified() throws Exception {
+        byte[] json = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        when(recipeCache.version(1L)).thenReturn(Optional.of(5L));
+        when(recipeCache.get(1L)).thenReturn(Optional.of(new CachedRecipe(1L, 5L, json, null)));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/recipe/{id_recipe}", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-4\""))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1-5\""))
+                .andExpect(MockMvcResultMatchers.content().bytes(json));
+    }
+
+    @Test
+    public void testGetRecipeByID_Gzip() throws Exception {
+        byte[] json = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        byte[] gzip = {31, -117, 8, 0};
+        when(recipeCache.get(1L)).thenReturn(Optional.of(new CachedRecipe(1L, 0L, json, gzip)));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/recipe/{id_recipe}", 1L)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.8"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(MockMvcResultMatchers.content().bytes(gzip));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/recipe/{id_recipe}", 1L)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(MockMvcResultMatchers.header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(MockMvcResultMatchers.content().bytes(json));
     }
 
     @Test
-    @WithMockUser(roles = "CHEF")
     public void testUpdateRecipe() throws Exception {
+        UserDetailsImpl chef = new UserDetailsImpl(1L, "chef", "chef@example.com", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_CHEF")));
         // Mock request body
         UpdateRecipeRequest request = new UpdateRecipeRequest();
         request.setId(1L);
         request.setTitle("Updated Recipe");
         request.setIngredients("Updated Ingredient 1, Updated Ingredient 2");
         request.setAuthor(1L);
-        request.setKeywords("");
+        request.setKeywords("main");
 
         // Mock user authentication
         User user = new User();
@@ -136,22 +412,57 @@ public class RecipeResourceTest {
         // Perform PUT request
         ResultActions resultActions = mockMvc.perform(MockMvcRequestBuilders
                 .put("/api/recipe")
+                .with(SecurityMockMvcRequestPostProcessors.user(chef))
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(asJsonString(request)));
 
         // Verify the response
         resultActions.andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(1L))
-                .andExpect(MockMvcResultMatchers.jsonPath("$.title").value("Recipe"))
-                .andExpect(MockMvcResultMatchers.jsonPath("$.ingredients").value("Ingredient 1, Ingredient 2"));
+                .andExpect(MockMvcResultMatchers.jsonPath("$.title").value("Updated Recipe"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.ingredients").value("Updated Ingredient 1, Updated Ingredient 2"));
 
         // Verify that the recipe is saved
         verify(recipeRepository, times(1)).save(any(Recipe.class));
+        verify(recipeSearchService, times(1)).indexRecipe(recipe);
+        verify(recipeCache, times(1)).invalidate(1L);
+    }
+
+    @Test
+    public void testUpdateRecipe_ConcurrentlyModified() throws Exception {
+        UserDetailsImpl chef = new UserDetailsImpl(1L, "chef", "chef@example.com", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_CHEF")));
+        UpdateRecipeRequest request = new UpdateRecipeRequest();
+        request.setId(1L);
+        request.setTitle("Updated Recipe");
+        request.setIngredients("Updated Ingredient 1");
+        request.setAuthor(1L);
+        request.setKeywords("main");
+
+        User user = new User();
+        user.setId(1L);
+        Recipe recipe = new Recipe();
+        recipe.setId(1L);
+        recipe.setAuthor(user);
+        when(recipeRepository.findById(1L)).thenReturn(Optional.of(recipe));
+        // A comment flush or a rating bumped the version after the recipe was read.
+        when(recipeRepository.save(any(Recipe.class))).thenThrow(new ObjectOptimisticLockingFailureException(Recipe.class, 1L));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .put("/api/recipe")
+                        .with(SecurityMockMvcRequestPostProcessors.user(chef))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(request)))
+                .andExpect(MockMvcResultMatchers.status().isConflict())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("Error: Recipe was modified concurrently, please retry"));
+
+        verify(recipeCache, never()).invalidate(1L);
     }
 
     @Test
-    @WithMockUser(roles = "CHEF")
     public void testDeleteRecipe() throws Exception {
+        UserDetailsImpl chef = new UserDetailsImpl(1L, "chef", "chef@example.com", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_CHEF")));
         // Mock user authentication
         User user = new User();
         user.setId(1L);
@@ -168,28 +479,26 @@ public class RecipeResourceTest {
         // Perform DELETE request
         ResultActions resultActions = mockMvc.perform(MockMvcRequestBuilders
                 .delete("/api/recipe/{recipeId}", 1L)
+                .with(SecurityMockMvcRequestPostProcessors.user(chef))
                 .contentType(MediaType.APPLICATION_JSON));
 
         // Verify the response
         resultActions.andExpect(MockMvcResultMatchers.status().isNoContent());
 
         // Verify that the recipe is deleted
-        verify(recipeRepository, times(1)).delete(recipe);
+        verify(recipeChangeService, times(1)).deleteRecipe(recipe);
+        verify(recipeSearchService, times(1)).removeRecipe(1L);
+        verify(recipeCache, times(1)).invalidate(1L);
     }
 
     @Test
     public void testSearchRecipes() throws Exception {
-        // Mock recipe repository
-        List<Recipe> recipes = new ArrayList<>();
-        Recipe recipe1 = new Recipe();
-        recipe1.setId(1L);
-        recipe1.setTitle("Recipe 1");
-        Recipe recipe2 = new Recipe();
-        recipe2.setId(2L);
-        recipe2.setTitle("Recipe 2");
-        recipes.add(recipe1);
-        recipes.add(recipe2);
-        when(recipeRepository.findByKeywordsInIgnoreCase(anyList())).thenReturn(recipes);
+        // Mock search service
+        List<RecipeSummary> recipes = new ArrayList<>();
+        recipes.add(summary(1L, "Recipe 1"));
+        recipes.add(summary(2L, "Recipe 2"));
+        when(recipeSearchService.searchWithSuggestions("keyword1,keyword2", true, 0, 20, false))
+                .thenReturn(new RecipeSearchResponse(recipes, List.of(), null));
 
         // Perform GET request
         ResultActions resultActions = mockMvc.perform(MockMvcRequestBuilders
@@ -199,53 +508,398 @@ public class RecipeResourceTest {
 
         // Verify the response
         resultActions.andExpect(MockMvcResultMatchers.status().isOk())
-                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(1L))
-                .andExpect(MockMvcResultMatchers.jsonPath("$[0].title").value("Recipe 1"))
-                .andExpect(MockMvcResultMatchers.jsonPath("$[1].id").value(2L))
-                .andExpect(MockMvcResultMatchers.jsonPath("$[1].title").value("Recipe 2"));
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[0].id").value(1L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[0].title").value("Recipe 1"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[1].id").value(2L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[1].title").value("Recipe 2"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.suggestions").isEmpty());
     }
 
     @Test
-    @WithMockUser(roles = "USER")
-    public void testAddCommentToRecipe() throws Exception {
-        // Mock request body
-        CreateCommentRequest request = new CreateCommentRequest();
-        request.setContent("Test comment");
+    public void testSearchRecipes_PageTooDeep() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/recipe/search")
+                        .param("keywords", "soup")
+                        .param("page", "10000000")
+                        .param("size", "100"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        verifyNoInteractions(recipeSearchService);
+    }
 
-        // Mock recipe repository
-        Recipe recipe = new Recipe();
-        recipe.setId(1L);
-        recipe.setTitle("Recipe");
+    @Test
+    public void testSearchRecipesAutocorrected() throws Exception {
+        when(recipeSearchService.searchWithSuggestions("spagetti", true, 0, 20, true))
+                .thenReturn(new RecipeSearchResponse(List.of(summary(3L, "Spaghetti")), List.of("spaghetti"), "spaghetti"));
 
-        when(recipeRepository.findById(1L)).thenReturn(Optional.of(recipe));
+        ResultActions resultActions = mockMvc.perform(MockMvcRequestBuilders
+                .get("/api/recipe/search")
+                .param("keywords", "spagetti")
+                .param("autocorrect", "true")
+                .contentType(MediaType.APPLICATION_JSON));
 
-        // Mock user authentication
-        User user = new User();
-        user.setId(1L);
+        resultActions.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[0].id").value(3L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.suggestions[0]").value("spaghetti"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.correctedQuery").value("spaghetti"));
+    }
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+    @Test
+    public void testSuggest() throws Exception {
+        when(recipeSearchService.suggest("tom", 5)).thenReturn(List.of("tomato", "Tomato soup"));
 
-        // Mock comment repository
-        Comment savedComment = new Comment();
-        savedComment.setId(1L);
-        savedComment.setText("Test comment");
-        savedComment.setAuthor(user);
-        savedComment.setRecipe(recipe);
-        when(commentRepository.save(any(Comment.class))).thenReturn(savedComment);
+        ResultActions resultActions = mockMvc.perform(MockMvcRequestBuilders
+                .get("/api/recipe/suggest")
+                .param("prefix", "tom")
+                .param("size", "5")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        resultActions.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0]").value("tomato"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1]").value("Tomato soup"));
+    }
+
+    @Test
+    public void testGetCookableRecipes() throws Exception {
+        // Mock search service
+        List<CookableRecipeResponse> recipes = new ArrayList<>();
+        recipes.add(new CookableRecipeResponse(summary(1L, "Pancakes"), Set.of()));
+        recipes.add(new CookableRecipeResponse(summary(2L, "Crepes"), Set.of("butter")));
+        when(recipeSearchService.cookable(List.of("eggs", "flour", "milk"), 1, 20)).thenReturn(recipes);
+
+        // Perform GET request
+        ResultActions resultActions = mockMvc.perform(MockMvcRequestBuilders
+                .get("/api/recipe/cookable")
+                .param("ingredients", "eggs,flour,milk")
+                .param("missing", "1")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        // Verify the response
+        resultActions.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].recipe.id").value(1L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].missingIngredients").isEmpty())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].recipe.title").value("Crepes"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].missingIngredients[0]").value("butter"));
+    }
+
+    @Test
+    public void testGetCookableRecipes_TooManyMissing() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/recipe/cookable")
+                        .param("ingredients", "eggs")
+                        .param("missing", "10")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    public void testGetComments() throws Exception {
+        LocalDateTime now = LocalDateTime.of(2023, 6, 1, 12, 0, 30, 500);
+        List<CommentSummary> comments = List.of(comment(9L, now), comment(8L, now), comment(7L, now.minusMinutes(1)));
+        when(commentRepository.findLatest(eq(1L), any(Pageable.class))).thenReturn(comments);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/recipe/{recipeId}/comments", 1L)
+                        .param("size", "2"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[1].id").value(8L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.next").value(CursorCodec.encode(now.toEpochSecond(ZoneOffset.UTC), 500, 8L)));
+    }
+
+    @Test
+    public void testGetComments_NextPage() throws Exception {
+        LocalDateTime now = LocalDateTime.of(2023, 6, 1, 12, 0, 30, 500);
+        when(commentRepository.findBefore(eq(1L), eq(now), eq(8L), any(Pageable.class)))
+                .thenReturn(List.of(comment(7L, now.minusMinutes(1))));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/recipe/{recipeId}/comments", 1L)
+                        .param("cursor", CursorCodec.encode(now.toEpochSecond(ZoneOffset.UTC), 500, 8L)))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].id").value(7L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    public void testGetComments_UnknownRecipe() throws Exception {
+        when(recipeRepository.existsById(2L)).thenReturn(false);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/recipe/{recipeId}/comments", 2L))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    public void testAddCommentToRecipe() throws Exception {
+        // Mock request body
+        CreateCommentRequest request = new CreateCommentRequest();
+        request.setContent("Test comment");
+
+        // Mock recipe lookup and comment buffer
+        when(recipeCache.version(1L)).thenReturn(Optional.of(0L));
+        CommentResponse accepted = new CommentResponse(51L, 1L, 1L, "Test comment", LocalDateTime.now());
+        when(commentWriteBuffer.submit(1L, 1L, "Test comment")).thenReturn(Optional.of(accepted));
 
         // Perform POST request
         ResultActions resultActions = mockMvc.perform(MockMvcRequestBuilders
                 .post("/api/recipe/{recipeId}/comments", 1L)
+                .with(SecurityMockMvcRequestPostProcessors.user(commenter()))
+                .with(SecurityMockMvcRequestPostProcessors.csrf())
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(asJsonString(request)));
 
         // Verify the response
-        resultActions.andExpect(MockMvcResultMatchers.status().isOk())
-                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(1L))
+        resultActions.andExpect(MockMvcResultMatchers.status().isAccepted())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(51L))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.text").value("Test comment"));
 
-        // Verify that the comment is saved
-        verify(commentRepository, times(1)).save(any(Comment.class));
+        // Verify that the recipe is never loaded and the comment is not written synchronously
+        verify(recipeRepository, never()).findById(anyLong());
+        verify(commentRepository, never()).save(any(Comment.class));
+    }
+
+    @Test
+    public void testAddCommentToRecipe_BufferFull() throws Exception {
+        CreateCommentRequest request = new CreateCommentRequest();
+        request.setContent("Test comment");
+        when(recipeCache.version(1L)).thenReturn(Optional.of(0L));
+        when(commentWriteBuffer.submit(1L, 1L, "Test comment")).thenReturn(Optional.empty());
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .post("/api/recipe/{recipeId}/comments", 1L)
+                        .with(SecurityMockMvcRequestPostProcessors.user(commenter()))
+                        .with(SecurityMockMvcRequestPostProcessors.csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(request)))
+                .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test
+    public void testAddCommentToRecipe_UnknownRecipe() throws Exception {
+        CreateCommentRequest request = new CreateCommentRequest();
+        request.setContent("Test comment");
+        when(recipeCache.version(2L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .post("/api/recipe/{recipeId}/comments", 2L)
+                        .with(SecurityMockMvcRequestPostProcessors.user(commenter()))
+                        .with(SecurityMockMvcRequestPostProcessors.csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(request)))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        verifyNoInteractions(commentWriteBuffer);
+    }
+
+    @Test
+    public void testGetChanges() throws Exception {
+        when(recipeChangeService.changesSince("token", 50))
+                .thenReturn(new ChangesResponse(List.of(summary(2L, "Soup")), List.of(3L), "next", false));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/recipe/changes")
+                        .param("since", "token")
+                        .param("size", "50"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.updated[0].id").value(2L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.deleted[0]").value(3L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.next").value("next"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    public void testGetChanges_InvalidToken() throws Exception {
+        when(recipeChangeService.changesSince(eq("bad"), anyInt())).thenThrow(new IllegalArgumentException("Malformed token: bad"));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/recipe/changes")
+                        .param("since", "bad"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    public void testGetTopRatedRecipes() throws Exception {
+        RecipeSummary first = rated(3L, 4.5);
+        RecipeSummary second = rated(1L, 4.0);
+        when(recipeRepository.findTopRated(any(Pageable.class))).thenReturn(List.of(first, second, rated(2L, 4.0)));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/recipe/top-rated")
+                        .param("size", "2"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].ratingAverage").value(4.5))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.next").value(CursorCodec.encode(Double.doubleToLongBits(4.0), 1L)));
+    }
+
+    @Test
+    public void testGetTopRatedRecipes_NextPage() throws Exception {
+        when(recipeRepository.findTopRatedBefore(eq(4.0), eq(1L), any(Pageable.class))).thenReturn(List.of(rated(2L, 4.0)));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/recipe/top-rated")
+                        .param("cursor", CursorCodec.encode(Double.doubleToLongBits(4.0), 1L)))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].id").value(2L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    public void testRateRecipe() throws Exception {
+        RateRecipeRequest request = new RateRecipeRequest();
+        request.setScore(4);
+        when(ratingService.rate(1L, 1L, 4)).thenReturn(Optional.of(new Rating(null, null, 4, LocalDateTime.now())));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .put("/api/recipe/{recipeId}/rating", 1L)
+                        .with(SecurityMockMvcRequestPostProcessors.user(commenter()))
+                        .with(SecurityMockMvcRequestPostProcessors.csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(request)))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.score").value(4));
+
+        verify(recipeCache, times(1)).invalidate(1L);
+    }
+
+    @Test
+    public void testRateRecipe_InvalidScore() throws Exception {
+        RateRecipeRequest request = new RateRecipeRequest();
+        request.setScore(6);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .put("/api/recipe/{recipeId}/rating", 1L)
+                        .with(SecurityMockMvcRequestPostProcessors.user(commenter()))
+                        .with(SecurityMockMvcRequestPostProcessors.csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(request)))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        verifyNoInteractions(ratingService);
+    }
+
+    @Test
+    public void testRateRecipe_UnknownRecipe() throws Exception {
+        RateRecipeRequest request = new RateRecipeRequest();
+        request.setScore(3);
+        when(ratingService.rate(2L, 1L, 3)).thenReturn(Optional.empty());
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .put("/api/recipe/{recipeId}/rating", 2L)
+                        .with(SecurityMockMvcRequestPostProcessors.user(commenter()))
+                        .with(SecurityMockMvcRequestPostProcessors.csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(request)))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        verify(recipeCache, never()).invalidate(anyLong());
+    }
+
+    @Test
+    public void testRateRecipe_Conflict() throws Exception {
+        RateRecipeRequest request = new RateRecipeRequest();
+        request.setScore(3);
+        when(ratingService.rate(1L, 1L, 3)).thenThrow(new DataIntegrityViolationException("uk_rating_recipe_user"));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .put("/api/recipe/{recipeId}/rating", 1L)
+                        .with(SecurityMockMvcRequestPostProcessors.user(commenter()))
+                        .with(SecurityMockMvcRequestPostProcessors.csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(request)))
+                .andExpect(MockMvcResultMatchers.status().isConflict());
+    }
+
+    @Test
+    public void testGetTrendingRecipes() throws Exception {
+        when(recipeViewCounter.trending(5)).thenReturn(List.of(new TrendingRecipeResponse(3L, "Pancakes", "chef", 42L)));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/recipe/trending")
+                        .param("size", "5"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(3L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].views").value(42L));
+    }
+
+    @Test
+    public void testStreamComments() throws Exception {
+        when(recipeCache.version(1L)).thenReturn(Optional.of(0L));
+        when(commentStreamHub.subscribe(1L, "abc")).thenReturn(new SseEmitter());
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/recipe/{recipeId}/comments/stream", 1L)
+                        .header("Last-Event-ID", "abc")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                // Spring Security's own no-store directives come along with the endpoint's no-cache.
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CACHE_CONTROL, containsString("no-cache")));
+
+        verify(commentStreamHub, times(1)).subscribe(1L, "abc");
+    }
+
+    @Test
+    public void testStreamComments_UnknownRecipe() throws Exception {
+        when(recipeCache.version(2L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/recipe/{recipeId}/comments/stream", 2L)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        verifyNoInteractions(commentStreamHub);
+    }
+
+    private UserDetailsImpl commenter() {
+        return new UserDetailsImpl(1L, "user", "user@example.com", "password", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    private CommentSummary comment(long id, LocalDateTime timestamp) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", id);
+        values.put("text", "Comment " + id);
+        values.put("timestamp", timestamp);
+        return projectionFactory.createProjection(CommentSummary.class, values);
+    }
+
+    private RecipeVersion version(long id, long version) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", id);
+        values.put("version", version);
+        return projectionFactory.createProjection(RecipeVersion.class, values);
+    }
+
+    private RecipeSummary summary(long id, String title) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", id);
+        values.put("title", title);
+        values.put("commentCount", 0);
+        values.put("ratingAverage", 0.0);
+        values.put("ratingCount", 0);
+        return projectionFactory.createProjection(RecipeSummary.class, values);
+    }
+
+    private ChefRecipeStats stats(long id, long commentCount, LocalDateTime lastCommentAt, int ratingCount, double ratingAverage) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", id);
+        values.put("title", "Recipe " + id);
+        values.put("commentCount", commentCount);
+        values.put("lastCommentAt", lastCommentAt);
+        values.put("ratingCount", ratingCount);
+        values.put("ratingAverage", ratingAverage);
+        return projectionFactory.createProjection(ChefRecipeStats.class, values);
+    }
+
+    private RecipeSummary rated(long id, double average) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", id);
+        values.put("title", "Recipe " + id);
+        values.put("commentCount", 0);
+        values.put("ratingAverage", average);
+        values.put("ratingCount", 2);
+        return projectionFactory.createProjection(RecipeSummary.class, values);
     }
 
     // Utility method to convert object to JSON string
@@ -0,0 +1,91 @@
+package com.bonitasoft.technicalchallenge;
+
+import com.bonitasoft.technicalchallenge.model.Recipe;
+import com.bonitasoft.technicalchallenge.repository.RecipeRepository;
+import com.bonitasoft.technicalchallenge.repository.projection.RecipeSummary;
+import com.bonitasoft.technicalchallenge.services.search.RecipeSearchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+// The SQL itself needs PostgreSQL; these check what the service sends to it and when.
+class RecipeSearchServiceTest {
+    private final SpelAwareProxyProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+    private RecipeRepository recipeRepository;
+    private RecipeSearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository = mock(RecipeRepository.class);
+        searchService = new RecipeSearchService();
+        ReflectionTestUtils.setField(searchService, "recipeRepository", recipeRepository);
+        ReflectionTestUtils.setField(searchService, "backend", "postgres");
+        ReflectionTestUtils.invokeMethod(searchService, "checkBackend");
+    }
+
+    @Test
+    void testMatchAllPassesTheQueryToWebSearch() {
+        searchService.search("tomato -onion \"olive oil\"", true, 0, 10);
+
+        verify(recipeRepository, times(1)).searchFullText("tomato -onion \"olive oil\"", 10, 0);
+    }
+
+    @Test
+    void testMatchAnyJoinsTermsWithOr() {
+        searchService.search("Tomato, SOUP  basil", false, 2, 10);
+
+        verify(recipeRepository, times(1)).searchFullText("tomato or soup or basil", 10, 20);
+    }
+
+    @Test
+    void testResultsKeepTheDatabaseRanking() {
+        when(recipeRepository.searchFullText("soup", 10, 0)).thenReturn(List.of(3L, 1L, 2L));
+        when(recipeRepository.findSummariesByIdIn(anyCollection())).thenAnswer(invocation ->
+                ((Collection<Long>) invocation.getArgument(0)).stream().sorted().map(this::summary).toList());
+
+        List<RecipeSummary> results = searchService.search("soup", true, 0, 10);
+
+        assertEquals(List.of(3L, 1L, 2L), results.stream().map(RecipeSummary::getId).toList());
+    }
+
+    @Test
+    void testOffsetPastTheCapIsRejected() {
+        int page = RecipeSearchService.MAX_OFFSET / 10 + 1;
+
+        assertThrows(IllegalArgumentException.class, () -> searchService.search("soup", false, page, 10));
+        assertThrows(IllegalArgumentException.class, () -> searchService.search("soup", false, Integer.MAX_VALUE, 100));
+        verifyNoInteractions(recipeRepository);
+    }
+
+    @Test
+    void testMemoryBackendDoesNotQueryFullText() {
+        ReflectionTestUtils.setField(searchService, "backend", "memory");
+        Recipe recipe = new Recipe("Tomato soup", "tomato, water", null, "soup");
+        recipe.setId(1L);
+        searchService.indexRecipe(recipe);
+        when(recipeRepository.findSummariesByIdIn(anyCollection())).thenReturn(List.of(summary(1L)));
+
+        assertEquals(1, searchService.search("soup", true, 0, 10).size());
+        verify(recipeRepository, never()).searchFullText(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testUnknownBackendIsRejected() {
+        ReflectionTestUtils.setField(searchService, "backend", "elastic");
+
+        assertThrows(IllegalStateException.class, () -> ReflectionTestUtils.invokeMethod(searchService, "checkBackend"));
+    }
+
+    private RecipeSummary summary(long id) {
+        return projections.createProjection(RecipeSummary.class, Map.of("id", id, "title", "Recipe " + id));
+    }
+}
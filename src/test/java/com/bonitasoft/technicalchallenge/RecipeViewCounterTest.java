@@ -0,0 +1,98 @@
+package com.bonitasoft.technicalchallenge;
+
+import com.bonitasoft.technicalchallenge.payload.response.TrendingRecipeResponse;
+import com.bonitasoft.technicalchallenge.repository.RecipeRepository;
+import com.bonitasoft.technicalchallenge.repository.projection.RecipeSummary;
+import com.bonitasoft.technicalchallenge.services.popularity.RecipeViewCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class RecipeViewCounterTest {
+    private JdbcTemplate jdbcTemplate;
+    private RecipeRepository recipeRepository;
+    private RecipeViewCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        recipeRepository = mock(RecipeRepository.class);
+        counter = new RecipeViewCounter();
+        ReflectionTestUtils.setField(counter, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(counter, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(counter, "recipeRepository", recipeRepository);
+        ReflectionTestUtils.setField(counter, "flushInterval", Duration.ofHours(1));
+        ReflectionTestUtils.setField(counter, "window", Duration.ofHours(1));
+        ReflectionTestUtils.setField(counter, "bucketCount", 12);
+        ReflectionTestUtils.setField(counter, "capacity", 10);
+        ReflectionTestUtils.setField(counter, "trendingSize", 10);
+        ReflectionTestUtils.invokeMethod(counter, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(counter, "stop");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlushWritesOneBatchOfDeltas() {
+        counter.record(2L);
+        counter.record(1L);
+        counter.record(2L);
+
+        ReflectionTestUtils.invokeMethod(counter, "flush");
+        ReflectionTestUtils.invokeMethod(counter, "flush");
+
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("update recipe set views"), argThat((List<Object[]> rows) ->
+                rows.size() == 2 && rows.get(0)[0].equals(1L) && rows.get(0)[1].equals(1L)
+                        && rows.get(1)[0].equals(2L) && rows.get(1)[1].equals(2L)));
+    }
+
+    @Test
+    void testFailedWriteIsRetried() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(new int[]{1});
+        counter.record(1L);
+
+        ReflectionTestUtils.invokeMethod(counter, "flush");
+        ReflectionTestUtils.invokeMethod(counter, "flush");
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void testTrendingIsRankedByViews() {
+        when(recipeRepository.findSummariesByIdIn(anyCollection())).thenReturn(List.of(summary(1L, "Soup"), summary(2L, "Cake")));
+        counter.record(1L);
+        counter.record(2L);
+        counter.record(2L);
+        assertTrue(counter.trending(10).isEmpty());
+
+        ReflectionTestUtils.invokeMethod(counter, "flush");
+
+        List<TrendingRecipeResponse> trending = counter.trending(10);
+        assertEquals(2, trending.size());
+        assertEquals("Cake", trending.get(0).getTitle());
+        assertEquals(2L, trending.get(0).getViews());
+        assertEquals(1, counter.trending(1).size());
+    }
+
+    private RecipeSummary summary(long id, String title) {
+        return new SpelAwareProxyProjectionFactory().createProjection(RecipeSummary.class, Map.of("id", id, "title", title));
+    }
+}
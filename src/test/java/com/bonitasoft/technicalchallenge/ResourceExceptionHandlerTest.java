@@ -0,0 +1,42 @@
+package com.bonitasoft.technicalchallenge;
+
+import com.bonitasoft.technicalchallenge.resource.ResourceExceptionHandler;
+import com.bonitasoft.technicalchallenge.security.services.PasswordHashingRejectedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ResourceExceptionHandlerTest {
+    private MockMvc mockMvc;
+
+    @RestController
+    static class HashingResource {
+        @GetMapping("/hash")
+        public String hash() {
+            throw new PasswordHashingRejectedException();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new HashingResource())
+                .setControllerAdvice(new ResourceExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void testPasswordHashingRejectedIsServiceUnavailable() throws Exception {
+        mockMvc.perform(get("/hash"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.message").value("Error: Too many password checks in progress, please retry later"));
+    }
+}
@@ -0,0 +1,49 @@
+package com.bonitasoft.technicalchallenge;
+
+import com.bonitasoft.technicalchallenge.services.popularity.SpaceSavingSketch;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingSketchTest {
+
+    @Test
+    void testCountsExactlyWithinCapacity() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(3);
+        sketch.offer(1L, 5);
+        sketch.offer(2L, 2);
+        sketch.offer(1L, 1);
+
+        assertEquals(Map.of(1L, 6L, 2L, 2L), sketch.counts());
+    }
+
+    @Test
+    void testNewKeyReplacesSmallestCounter() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(2);
+        sketch.offer(1L, 10);
+        sketch.offer(2L, 3);
+        sketch.offer(3L, 1);
+
+        // 3 inherits the count of 2, so it is over-estimated by at most 3.
+        assertEquals(Map.of(1L, 10L, 3L, 4L), sketch.counts());
+        assertEquals(2, sketch.size());
+    }
+
+    @Test
+    void testKeepsHeavyHitters() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(10);
+        for (long i = 0; i < 1000; i++) {
+            sketch.offer(i % 2 == 0 ? 42L : 1000 + i, 1);
+        }
+
+        assertTrue(sketch.counts().get(42L) >= 500);
+        assertEquals(10, sketch.size());
+    }
+
+    @Test
+    void testRejectsEmptyCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSavingSketch(0));
+    }
+}
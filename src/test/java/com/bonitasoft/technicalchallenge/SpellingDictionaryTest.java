@@ -0,0 +1,54 @@
+package com.bonitasoft.technicalchallenge;
+
+import com.bonitasoft.technicalchallenge.services.search.SpellingDictionary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpellingDictionaryTest {
+    private SpellingDictionary dictionary;
+
+    @BeforeEach
+    void setUp() {
+        dictionary = new SpellingDictionary();
+        dictionary.index(1L, "Tomato soup", "soup, vegetarian");
+        dictionary.index(2L, "Potato salad", "salad, tomato");
+        dictionary.index(3L, "Spaghetti carbonara", null);
+    }
+
+    @Test
+    void testLookupFindsCloseTerms() {
+        assertEquals(List.of("spaghetti"), dictionary.lookup("spagetti", 5));
+        assertEquals(List.of("tomato"), dictionary.lookup("tomatoe", 5));
+        assertEquals(List.of("salad"), dictionary.lookup("sald", 5));
+        assertTrue(dictionary.lookup("chocolate", 5).isEmpty());
+    }
+
+    @Test
+    void testTermsDisappearWithTheirLastRecipe() {
+        dictionary.remove(1L);
+        assertEquals(List.of("tomato"), dictionary.lookup("tomatoe", 5));
+        assertTrue(dictionary.lookup("sop", 5).isEmpty());
+
+        dictionary.index(2L, "Potato salad", "salad");
+        assertTrue(dictionary.lookup("tomatoe", 5).isEmpty());
+    }
+
+    @Test
+    void testOverlongTermsAreNotCorrected() {
+        String overlong = "a".repeat(SpellingDictionary.MAX_TERM_LENGTH) + "tomato";
+        dictionary.index(4L, overlong, null);
+        assertTrue(dictionary.lookup(overlong, 5).isEmpty());
+        assertTrue(dictionary.lookup("x".repeat(10_000), 5).isEmpty());
+    }
+
+    @Test
+    void testDistanceCountsTranspositionsOnce() {
+        assertEquals(1, SpellingDictionary.distance("tomtao", "tomato"));
+        assertEquals(2, SpellingDictionary.distance("sald", "salads"));
+    }
+}
@@ -0,0 +1,50 @@
+package com.bonitasoft.technicalchallenge;
+
+import com.bonitasoft.technicalchallenge.services.search.SuggestionIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SuggestionIndexTest {
+    private SuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SuggestionIndex();
+        index.index(1L, "Tomato soup", "soup, vegetarian, tomato");
+        index.index(2L, "Tomato salad", "salad, vegetarian, tomato");
+        index.index(3L, "Tortilla", "spanish, eggs");
+    }
+
+    @Test
+    void testMostUsedCompletionComesFirst() {
+        List<String> suggestions = index.suggest("To", 10);
+
+        assertEquals("tomato", suggestions.get(0));
+        assertEquals(4, suggestions.size());
+        assertTrue(suggestions.containsAll(List.of("Tomato soup", "Tomato salad", "Tortilla")));
+        assertEquals(2, index.suggest("tom", 2).size());
+    }
+
+    @Test
+    void testUpdatesAdjustWeights() {
+        index.index(2L, "Green salad", "salad");
+        assertEquals(List.of("vegetarian"), index.suggest("veg", 10));
+        assertTrue(index.suggest("tomato s", 10).contains("Tomato soup"));
+        assertFalse(index.suggest("tomato s", 10).contains("Tomato salad"));
+
+        index.remove(1L);
+        assertTrue(index.suggest("veg", 10).isEmpty());
+        assertEquals(List.of("Tortilla"), index.suggest("to", 10));
+    }
+
+    @Test
+    void testBlankPrefixSuggestsNothing() {
+        assertTrue(index.suggest("  ", 10).isEmpty());
+    }
+}
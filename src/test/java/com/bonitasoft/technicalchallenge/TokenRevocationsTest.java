@@ -0,0 +1,56 @@
+package com.bonitasoft.technicalchallenge;
+
+import com.bonitasoft.technicalchallenge.repository.DeletedUserRepository;
+import com.bonitasoft.technicalchallenge.repository.UserRepository;
+import com.bonitasoft.technicalchallenge.repository.projection.UserTokenVersion;
+import com.bonitasoft.technicalchallenge.security.jwt.TokenRevocations;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationsTest {
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private DeletedUserRepository deletedUserRepository;
+
+    @InjectMocks
+    private TokenRevocations tokenRevocations;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(tokenRevocations, "jwtExpirationMs", 86400000L);
+    }
+
+    @Test
+    void testDeletedUsersStayRevokedAfterRestart() {
+        UserTokenVersion bumped = new SpelAwareProxyProjectionFactory().createProjection(UserTokenVersion.class,
+                Map.of("id", 3L, "tokenVersion", 2L));
+        when(userRepository.findRevokedTokenVersions()).thenReturn(List.of(bumped));
+        when(deletedUserRepository.findUserIdsDeletedAfter(any(LocalDateTime.class))).thenReturn(List.of(7L));
+
+        ReflectionTestUtils.invokeMethod(tokenRevocations, "load");
+
+        assertTrue(tokenRevocations.isRevoked(7L, 0));
+        assertTrue(tokenRevocations.isRevoked(7L, Long.MAX_VALUE - 1));
+        assertTrue(tokenRevocations.isRevoked(3L, 1));
+        assertFalse(tokenRevocations.isRevoked(3L, 2));
+        assertFalse(tokenRevocations.isRevoked(1L, 0));
+        verify(deletedUserRepository, times(1)).deleteDeletedBefore(any(LocalDateTime.class));
+    }
+}
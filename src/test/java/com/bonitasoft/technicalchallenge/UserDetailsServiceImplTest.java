@@ -0,0 +1,68 @@
+package com.bonitasoft.technicalchallenge;
+
+import com.bonitasoft.technicalchallenge.model.ERole;
+import com.bonitasoft.technicalchallenge.model.Role;
+import com.bonitasoft.technicalchallenge.model.User;
+import com.bonitasoft.technicalchallenge.repository.UserRepository;
+import com.bonitasoft.technicalchallenge.security.services.RoleAuthorities;
+import com.bonitasoft.technicalchallenge.security.services.UserDetailsServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserDetailsServiceImplTest {
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private UserDetailsServiceImpl userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(userDetailsService, "maximumSize", 100L);
+        ReflectionTestUtils.setField(userDetailsService, "ttl", Duration.ofMinutes(10));
+        ReflectionTestUtils.invokeMethod(userDetailsService, "init");
+    }
+
+    @Test
+    void testLoadsUserOnceUntilEvicted() {
+        User user = new User("chef", "chef@example.com", "password");
+        user.setId(7L);
+        user.getRoles().add(new Role(ERole.ROLE_CHEF));
+        when(userRepository.findByUsername("chef")).thenReturn(Optional.of(user));
+
+        UserDetails first = userDetailsService.loadUserByUsername("chef");
+        assertSame(first, userDetailsService.loadUserByUsername("chef"));
+        verify(userRepository, times(1)).findByUsername("chef");
+        assertSame(RoleAuthorities.CHEF, first.getAuthorities().iterator().next());
+
+        userDetailsService.evict(7L);
+        assertNotSame(first, userDetailsService.loadUserByUsername("chef"));
+        verify(userRepository, times(2)).findByUsername("chef");
+    }
+
+    @Test
+    void testUnknownUsernameIsNotCached() {
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("ghost"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("ghost"));
+        verify(userRepository, times(2)).findByUsername("ghost");
+    }
+}